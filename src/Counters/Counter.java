@@ -0,0 +1,16 @@
+package Counters;
+
+/**
+ * A shared count that many threads add to and that is read now and then, e.g. the counter++
+ * under a lock in LockExampleWithReentrantLock or the AtomicInteger in VolatileVsAtomicDemo.
+ */
+public interface Counter {
+
+    void add(long delta);
+
+    default void increment() {
+        add(1);
+    }
+
+    long sum();
+}
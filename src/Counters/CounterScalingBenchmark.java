@@ -0,0 +1,210 @@
+package Counters;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Increments per second on one shared counter, from 1 thread up to twice the machine's core
+ * count, for every way the examples in this repo count:
+ * - synchronized        SynchronizedMethodVsBlockDemo, VolatileVsAtomicDemo's incrementSyncCounter
+ * - ReentrantLock       LockExampleWithReentrantLock, FairAndUnfairLockExample
+ * - AtomicLong          VolatileVsAtomicDemo's AtomicInteger
+ * - LongAdder           the JDK's striped counter, for reference
+ * - StripedCounter      default and exact-snapshot mode
+ *
+ * Then, with one writer per core running, how long a sum() takes and how many increments per
+ * second the writers still manage while another thread sums continuously.
+ */
+public class CounterScalingBenchmark {
+
+    private static final int CPUS = Runtime.getRuntime().availableProcessors();
+    private static final long MEASURE_MILLIS = 500;
+
+    // Keeps the JIT from dropping sum() calls whose result is unused
+    private static volatile long blackhole;
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, Supplier<Counter>> counters = new LinkedHashMap<>();
+        counters.put("synchronized", SynchronizedCounter::new);
+        counters.put("ReentrantLock", LockCounter::new);
+        counters.put("AtomicLong", AtomicCounter::new);
+        counters.put("LongAdder", AdderCounter::new);
+        counters.put("Striped", StripedCounter::new);
+        counters.put("Striped exact", () -> new StripedCounter(true));
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads <= Math.max(4, 2 * CPUS); threads *= 2) {
+            threadCounts.add(threads);
+        }
+
+        System.out.printf("M increments/s, %d CPUs%n", CPUS);
+        System.out.printf("%-8s", "threads");
+        for (String name : counters.keySet()) {
+            System.out.printf("%15s", name);
+        }
+        System.out.println();
+        for (Supplier<Counter> counter : counters.values()) {
+            measure(counter.get(), 2, false);  // warm-up
+        }
+        for (int threads : threadCounts) {
+            System.out.printf("%-8d", threads);
+            for (Supplier<Counter> counter : counters.values()) {
+                System.out.printf("%15.1f", measure(counter.get(), threads, false)[0] / 1e6);
+            }
+            System.out.println();
+        }
+
+        System.out.println();
+        System.out.printf("%d writers plus one thread calling sum() in a loop:%n", CPUS);
+        for (String name : new String[] {"LongAdder", "Striped", "Striped exact"}) {
+            double[] result = measure(counters.get(name).get(), CPUS, true);
+            System.out.printf("  %-14s %8.1f M increments/s, sum() %6.0f ns%n", name, result[0] / 1e6, result[1]);
+        }
+    }
+
+    /**
+     * @return {increments per second, mean nanoseconds per sum() (0 without a reader)}
+     */
+    private static double[] measure(Counter counter, int threads, boolean withReader) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] increments = new long[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long done = 0;
+                while (running.get()) {
+                    for (int i = 0; i < 1024; i++) {
+                        counter.increment();
+                    }
+                    done += 1024;
+                }
+                increments[index] = done;
+            });
+            workers[t].start();
+        }
+        long[] sums = new long[2];  // {calls, nanos}
+        Thread reader = null;
+        if (withReader) {
+            reader = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long calls = 0;
+                long begin = System.nanoTime();
+                long sink = 0;
+                while (running.get()) {
+                    sink += counter.sum();
+                    calls++;
+                }
+                sums[0] = calls;
+                sums[1] = System.nanoTime() - begin;
+                blackhole = sink;
+            });
+            reader.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(MEASURE_MILLIS);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (reader != null) {
+            reader.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        long total = 0;
+        for (long count : increments) {
+            total += count;
+        }
+        if (counter.sum() != total) {
+            System.out.printf("%n%s lost increments: %d of %d%n", counter.getClass().getSimpleName(), total - counter.sum(), total);
+        }
+        return new double[] {total * 1e9 / elapsed, sums[0] == 0 ? 0 : (double) sums[1] / sums[0]};
+    }
+
+    private static final class SynchronizedCounter implements Counter {
+        private long count;
+
+        @Override
+        public synchronized void add(long delta) {
+            count += delta;
+        }
+
+        @Override
+        public synchronized long sum() {
+            return count;
+        }
+    }
+
+    private static final class LockCounter implements Counter {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long count;
+
+        @Override
+        public void add(long delta) {
+            lock.lock();
+            try {
+                count += delta;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public long sum() {
+            lock.lock();
+            try {
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class AtomicCounter implements Counter {
+        private final AtomicLong count = new AtomicLong();
+
+        @Override
+        public void add(long delta) {
+            count.addAndGet(delta);
+        }
+
+        @Override
+        public long sum() {
+            return count.get();
+        }
+    }
+
+    private static final class AdderCounter implements Counter {
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void add(long delta) {
+            count.add(delta);
+        }
+
+        @Override
+        public long sum() {
+            return count.sum();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package Counters;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A power-of-two number of long cells, each on its own pair of cache lines, and the thread to
+ * cell mapping that goes with them. Shared by StripedCounter and LocknUnlock's
+ * ReaderBiasedReadWriteLock, which both spread writes over per-thread cells.
+ *
+ * The cells live in one long[] 16 longs (128 bytes) apart, cell i at (i + 1) * 16, clear of the
+ * array header: two cache lines per cell, so the adjacent-line prefetcher does not pair two cells
+ * up either. All access is atomic, through a VarHandle on the array.
+ *
+ * A thread always maps to the same cell: its id times the golden ratio (Fibonacci hashing), top
+ * bits, masked. Consecutive thread ids thus land on different cells.
+ */
+public final class PaddedCells {
+
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int PAD = 16;
+
+    private final long[] cells;
+    private final int mask;
+
+    /**
+     * @param minCells rounded up to a power of two
+     */
+    public PaddedCells(int minCells) {
+        int size = 1;
+        while (size < minCells) {
+            size <<= 1;
+        }
+        this.cells = new long[(size + 1) * PAD];
+        this.mask = size - 1;
+    }
+
+    public int size() {
+        return mask + 1;
+    }
+
+    /**
+     * The cell (0 to size() - 1) this thread adds to.
+     */
+    public int cellOf(Thread thread) {
+        int hash = (int) (thread.threadId() * 0x9E3779B97F4A7C15L >>> 32);
+        return hash & mask;
+    }
+
+    public long get(int cell) {
+        return (long) CELLS.getVolatile(cells, (cell + 1) * PAD);
+    }
+
+    public void set(int cell, long value) {
+        CELLS.setVolatile(cells, (cell + 1) * PAD, value);
+    }
+
+    /**
+     * @return the previous value
+     */
+    public long getAndAdd(int cell, long delta) {
+        return (long) CELLS.getAndAdd(cells, (cell + 1) * PAD, delta);
+    }
+
+    /**
+     * @return the previous value
+     */
+    public long getAndSet(int cell, long value) {
+        return (long) CELLS.getAndSet(cells, (cell + 1) * PAD, value);
+    }
+
+    public boolean compareAndSet(int cell, long expected, long value) {
+        return CELLS.compareAndSet(cells, (cell + 1) * PAD, expected, value);
+    }
+
+    /**
+     * Adds up the cells one after the other; not a snapshot while they are being written.
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += get(i);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,91 @@
+package Counters;
+
+/**
+ * Counter spread over padded cells, in the manner of LongAdder, so threads on different cores do
+ * not all write the same cache line.
+ *
+ * A single int behind a lock or an AtomicInteger is one cache line that every increment has to
+ * own exclusively, so with more cores each increment mostly waits for that line to come over.
+ * Here every thread adds to the cell picked by its thread id; there are two cells per CPU, each
+ * on its own two cache lines (see PaddedCells).
+ *
+ * sum() adds up the cells:
+ * - default mode: plain reads, no writer is ever held up; while increments are running the result
+ *   may contain some of them and not others, exactly like LongAdder.sum()
+ * - exact mode (new StripedCounter(true)): sum() freezes every cell, adds them up and releases
+ *   them, so the result is the count at one instant. Increments use a CAS loop and wait while
+ *   their cell is frozen, which lasts a few nanoseconds per cell. Long.MIN_VALUE marks a frozen
+ *   cell, so a cell must never legitimately hold it.
+ */
+public class StripedCounter implements Counter {
+
+    private static final long FROZEN = Long.MIN_VALUE;
+    private static final boolean MULTI_CORE = Runtime.getRuntime().availableProcessors() > 1;
+
+    private final PaddedCells cells;
+    private final boolean exact;
+
+    public StripedCounter() {
+        this(false);
+    }
+
+    public StripedCounter(boolean exactSnapshots) {
+        this(2 * Runtime.getRuntime().availableProcessors(), exactSnapshots);
+    }
+
+    public StripedCounter(int minCells, boolean exactSnapshots) {
+        this.cells = new PaddedCells(minCells);
+        this.exact = exactSnapshots;
+    }
+
+    @Override
+    public void add(long delta) {
+        int cell = cells.cellOf(Thread.currentThread());
+        if (!exact) {
+            cells.getAndAdd(cell, delta);
+            return;
+        }
+        while (true) {
+            long value = cells.get(cell);
+            if (value == FROZEN) {
+                // sum() is reading this cell right now
+                if (MULTI_CORE) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            } else if (cells.compareAndSet(cell, value, value + delta)) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public long sum() {
+        return exact ? exactSum() : cells.sum();
+    }
+
+    public boolean isExact() {
+        return exact;
+    }
+
+    public int cellCount() {
+        return cells.size();
+    }
+
+    // One snapshot at a time, so a cell is never found frozen by another snapshot
+    private synchronized long exactSum() {
+        int count = cells.size();
+        long[] frozen = new long[count];
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            frozen[i] = cells.getAndSet(i, FROZEN);
+            sum += frozen[i];
+        }
+        // Every cell is frozen at this point: sum is the count at this instant
+        for (int i = 0; i < count; i++) {
+            cells.set(i, frozen[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,267 @@
+package ExecutorService.Bulkhead;
+
+import ExecutorService.ThreadPool.CustomThreadFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One shared pool of worker threads, partitioned between tenants.
+ *
+ * Every tenant gets:
+ * - reservedThreads: always available to it, whatever the other tenants do
+ * - maxThreads:      upper bound including threads borrowed from idle tenants
+ * - queueCapacity:   its own bounded queue; when full, only that tenant's submits are rejected
+ *
+ * When a worker becomes free it first serves a tenant that is below its reservation and has work
+ * queued (round-robin among them), and only then lends itself to a tenant that is already at or
+ * above its reservation. Tasks are not preempted, so a borrowed thread goes back to its owner as
+ * soon as the task it is running finishes; with short reminder tasks that reclaim is quick.
+ * Setting a big tenant's maxThreads below the pool size keeps a few threads that are never lent
+ * to it, which bounds how long a small tenant can wait for a reclaim.
+ *
+ * A burst from one tenant therefore fills only that tenant's queue, while the threads it borrowed
+ * stop being handed to it the moment a small tenant has work again.
+ */
+public class BulkheadExecutor {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final List<Tenant> tenants = new ArrayList<>();
+    private final Map<String, Tenant> tenantsByName = new ConcurrentHashMap<>();
+    private final Thread[] workers;
+    private final CountDownLatch terminated;
+    private int reservedTotal;
+    private int nextTenant;
+    private boolean shutdown;
+
+    public BulkheadExecutor(int threads) {
+        this(threads, new CustomThreadFactory("bulkhead"));
+    }
+
+    public BulkheadExecutor(int threads, ThreadFactory threadFactory) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.workers = new Thread[threads];
+        this.terminated = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            workers[i] = threadFactory.newThread(this::workerLoop);
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    public void registerTenant(String name, int reservedThreads, int maxThreads, int queueCapacity) {
+        if (reservedThreads < 0 || maxThreads < Math.max(1, reservedThreads) || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Invalid limits for tenant " + name);
+        }
+        lock.lock();
+        try {
+            if (tenantsByName.containsKey(name)) {
+                throw new IllegalArgumentException("Tenant already registered: " + name);
+            }
+            if (reservedTotal + reservedThreads > workers.length) {
+                throw new IllegalArgumentException("Reservations exceed the " + workers.length + " worker threads");
+            }
+            Tenant tenant = new Tenant(reservedThreads, Math.min(maxThreads, workers.length), queueCapacity);
+            reservedTotal += reservedThreads;
+            tenants.add(tenant);
+            tenantsByName.put(name, tenant);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void execute(String tenantName, Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        Tenant tenant = tenantsByName.get(tenantName);
+        if (tenant == null) {
+            throw new IllegalArgumentException("Unknown tenant: " + tenantName);
+        }
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            if (tenant.queue.size() >= tenant.queueCapacity) {
+                tenant.rejected++;
+                throw new RejectedExecutionException("Queue of tenant " + tenantName + " is full");
+            }
+            tenant.queue.addLast(command);
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> Future<T> submit(String tenantName, Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(tenantName, future);
+        return future;
+    }
+
+    /**
+     * An Executor that submits everything on behalf of one tenant, so existing code that takes an
+     * Executor does not need to know about tenants.
+     */
+    public Executor forTenant(String tenantName) {
+        if (!tenantsByName.containsKey(tenantName)) {
+            throw new IllegalArgumentException("Unknown tenant: " + tenantName);
+        }
+        return command -> execute(tenantName, command);
+    }
+
+    public long getRejectedCount(String tenantName) {
+        lock.lock();
+        try {
+            return tenantsByName.get(tenantName).rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Lifecycle
+
+    /**
+     * Stops accepting tasks; already queued tasks still run.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<Runnable> shutdownNow() {
+        List<Runnable> neverRun = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            for (Tenant tenant : tenants) {
+                neverRun.addAll(tenant.queue);
+                tenant.queue.clear();
+            }
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        return neverRun;
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private void workerLoop() {
+        try {
+            while (true) {
+                Tenant tenant;
+                Runnable task;
+                lock.lock();
+                try {
+                    while ((tenant = pickTenant()) == null) {
+                        if (shutdown && allQueuesEmpty()) {
+                            return;
+                        }
+                        workAvailable.awaitUninterruptibly();
+                    }
+                    task = tenant.queue.pollFirst();
+                    tenant.running++;
+                } finally {
+                    lock.unlock();
+                }
+
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                } finally {
+                    Thread.interrupted();  // don't leak shutdownNow's interrupt into the next task
+                    lock.lock();
+                    try {
+                        tenant.running--;
+                        // A tenant that was at its maxThreads may be eligible again
+                        workAvailable.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    // Caller holds the lock
+    private Tenant pickTenant() {
+        int count = tenants.size();
+        // Owners first: tenants with work that are still inside their reservation
+        for (int i = 0; i < count; i++) {
+            Tenant tenant = tenants.get((nextTenant + i) % count);
+            if (!tenant.queue.isEmpty() && tenant.running < tenant.reservedThreads) {
+                nextTenant = (nextTenant + i + 1) % count;
+                return tenant;
+            }
+        }
+        // Then lend the free thread to anyone with work, up to their maxThreads
+        for (int i = 0; i < count; i++) {
+            Tenant tenant = tenants.get((nextTenant + i) % count);
+            if (!tenant.queue.isEmpty() && tenant.running < tenant.maxThreads) {
+                nextTenant = (nextTenant + i + 1) % count;
+                return tenant;
+            }
+        }
+        return null;
+    }
+
+    private boolean allQueuesEmpty() {
+        for (Tenant tenant : tenants) {
+            if (!tenant.queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // All fields guarded by the executor's lock
+    private static final class Tenant {
+        private final int reservedThreads;
+        private final int maxThreads;
+        private final int queueCapacity;
+        private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        private int running;
+        private long rejected;
+
+        Tenant(int reservedThreads, int maxThreads, int queueCapacity) {
+            this.reservedThreads = reservedThreads;
+            this.maxThreads = maxThreads;
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ExecutorService.Bulkhead;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two insurance tenants share 8 reminder threads. "BigInsurer" dumps a 4000-reminder campaign
+ * at once, "SmallInsurer" sends one reminder every 10ms throughout.
+ *
+ * - shared newFixedThreadPool(8), as in FixedThreadPool.PolicyReminderService: SmallInsurer's
+ *   reminders queue behind the whole campaign
+ * - BulkheadExecutor: SmallInsurer has 2 reserved threads, BigInsurer may borrow up to 7, so
+ *   SmallInsurer keeps low latency and BigInsurer still uses the idle capacity
+ */
+public class BulkheadReminderService {
+
+    private static final int BIG_BURST = 4000;
+    private static final int SMALL_REMINDERS = 200;
+
+    public static void main(String[] args) throws InterruptedException {
+        ExecutorService shared = Executors.newFixedThreadPool(8);
+        run("shared newFixedThreadPool(8)", shared, shared);
+        shared.shutdown();
+
+        BulkheadExecutor bulkhead = new BulkheadExecutor(8);
+        bulkhead.registerTenant("BigInsurer", 6, 7, BIG_BURST);
+        bulkhead.registerTenant("SmallInsurer", 2, 8, 100);
+        run("BulkheadExecutor(8)", bulkhead.forTenant("BigInsurer"), bulkhead.forTenant("SmallInsurer"));
+        bulkhead.shutdown();
+        bulkhead.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private static void run(String name, Executor big, Executor small) throws InterruptedException {
+        CountDownLatch bigDone = new CountDownLatch(BIG_BURST);
+        CountDownLatch smallDone = new CountDownLatch(SMALL_REMINDERS);
+        long[] smallLatencies = new long[SMALL_REMINDERS];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BIG_BURST; i++) {
+            big.execute(() -> {
+                sendReminder();
+                bigDone.countDown();
+            });
+        }
+        for (int i = 0; i < SMALL_REMINDERS; i++) {
+            int index = i;
+            long submittedAt = System.nanoTime();
+            small.execute(() -> {
+                sendReminder();
+                smallLatencies[index] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedAt);
+                smallDone.countDown();
+            });
+            Thread.sleep(10);
+        }
+        smallDone.await();
+        bigDone.await();
+        long bigMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Arrays.sort(smallLatencies);
+        System.out.println(name);
+        System.out.printf("  SmallInsurer reminder latency p50 = %d ms, p99 = %d ms%n",
+                smallLatencies[SMALL_REMINDERS / 2], smallLatencies[(int) Math.ceil(SMALL_REMINDERS * 0.99) - 1]);
+        System.out.printf("  BigInsurer campaign finished after %d ms%n", bigMillis);
+    }
+
+    private static void sendReminder() {
+        try {
+            Thread.sleep(5);  // simulated mail send
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package ExecutorService.FutureInterface;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Structured fan-out in the style of JDK's StructuredTaskScope (still a preview API in JDK 21,
+ * so this is a small stand-alone version that only needs final JDK 21 features).
+ *
+ * - fork() runs each subtask on its own virtual thread; if that thread cannot be created or
+ *   started, the subtask fails with the error (which fork() also rethrows)
+ * - ALL_SUCCESSFUL: the first failure cancels (interrupts) every sibling
+ * - ANY_SUCCESSFUL: the first success cancels every sibling
+ * - join(timeout) waits for the outcome but never past the deadline; on timeout it cancels
+ *   whatever is still running
+ * - close() waits until every forked thread has really finished, so no subtask outlives the
+ *   try-with-resources block that started it
+ *
+ * Compared with executor.submit(...) + future.get() one by one, a failed fan-out stops burning
+ * CPU in the siblings immediately, and the caller hears about the failure right away instead of
+ * when its get() loop happens to reach the failed future.
+ */
+public class FanOutScope<T> implements AutoCloseable {
+
+    public enum Policy {
+        ALL_SUCCESSFUL,
+        ANY_SUCCESSFUL
+    }
+
+    private final Policy policy;
+    private final ThreadFactory threadFactory;
+    private final List<Subtask> subtasks = new ArrayList<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Thread owner = Thread.currentThread();
+
+    // Guarded by lock
+    private int running;
+    private boolean shutdown;
+    private Throwable firstFailure;
+    private T firstResult;
+    private boolean hasResult;
+
+    public FanOutScope(Policy policy) {
+        this(policy, Thread.ofVirtual().name("fan-out-", 0).factory());
+    }
+
+    public FanOutScope(Policy policy, ThreadFactory threadFactory) {
+        this.policy = policy;
+        this.threadFactory = threadFactory;
+    }
+
+    public Future<T> fork(Callable<T> task) {
+        ensureOwner();
+        Subtask subtask = new Subtask(task);
+        lock.lock();
+        try {
+            if (shutdown) {
+                // Scope already decided; the subtask is cancelled without ever running
+                subtask.cancel(false);
+                return subtask;
+            }
+            subtasks.add(subtask);
+            running++;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            Thread thread = threadFactory.newThread(subtask);
+            if (thread == null) {
+                throw new RejectedExecutionException("Thread factory refused to create a thread");
+            }
+            thread.start();
+        } catch (RuntimeException | Error e) {
+            // No thread will ever run it: fail it (as if it had thrown) and take back its count,
+            // or join() and close() would wait for it forever
+            subtask.failToStart(e);
+            onThreadExit();
+            throw e;
+        }
+        return subtask;
+    }
+
+    /**
+     * Waits until the policy is satisfied (all done, first failure or first success) or until the
+     * timeout. On timeout all remaining subtasks are cancelled and TimeoutException is thrown.
+     */
+    public FanOutScope<T> join(long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
+        ensureOwner();
+        long remaining = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!shutdown && running > 0) {
+                if (remaining <= 0) {
+                    shutdownLocked();
+                    throw new TimeoutException("Fan-out did not finish within " + timeout + " " + unit);
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * ALL_SUCCESSFUL: throws the first failure, if any.
+     */
+    public void throwIfFailed() throws ExecutionException {
+        lock.lock();
+        try {
+            if (firstFailure != null) {
+                throw new ExecutionException(firstFailure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * ANY_SUCCESSFUL: the first successful result, or the first failure if every subtask failed.
+     */
+    public T result() throws ExecutionException {
+        lock.lock();
+        try {
+            if (hasResult) {
+                return firstResult;
+            }
+            throw new ExecutionException("No subtask completed successfully", firstFailure);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels anything still running and waits for every forked thread to finish.
+     */
+    @Override
+    public void close() {
+        ensureOwner();
+        boolean interrupted = false;
+        lock.lock();
+        try {
+            shutdownLocked();
+            while (running > 0) {
+                try {
+                    changed.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureOwner() {
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Only the thread that opened the scope may use it");
+        }
+    }
+
+    // Caller holds the lock
+    private void shutdownLocked() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        for (Subtask subtask : subtasks) {
+            subtask.cancel(true);
+        }
+        changed.signalAll();
+    }
+
+    // Called from the subtask's own thread when it completes (not when it is cancelled)
+    private void onOutcome(Subtask subtask) {
+        lock.lock();
+        try {
+            try {
+                T value = subtask.get();
+                if (policy == Policy.ANY_SUCCESSFUL && !hasResult && !shutdown) {
+                    hasResult = true;
+                    firstResult = value;
+                    shutdownLocked();
+                }
+            } catch (ExecutionException e) {
+                if (firstFailure == null && !shutdown) {
+                    firstFailure = e.getCause();
+                    if (policy == Policy.ALL_SUCCESSFUL) {
+                        shutdownLocked();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Not reachable: get() on a completed task does not wait
+                Thread.currentThread().interrupt();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onThreadExit() {
+        lock.lock();
+        try {
+            running--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class Subtask extends FutureTask<T> {
+        Subtask(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                // Counted here rather than in done(): a cancelled subtask may still be unwinding
+                onThreadExit();
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                onOutcome(this);
+            }
+        }
+
+        void failToStart(Throwable error) {
+            setException(error);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ExecutorService.FutureInterface;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FutureExample fans out to 8 subtasks; subtask #3 fails after 50ms, the others need ~400ms of
+ * CPU each.
+ *
+ * - submit-and-get: the caller blocks in get() on subtask #0 first, so it only learns about the
+ *   failure when #0 is done, and the other 7 subtasks keep burning CPU until they finish
+ * - FanOutScope (ALL_SUCCESSFUL): the failure cancels the siblings at once and join() returns
+ *
+ * "Wasted" = busy time the subtasks spent after the failure had already happened.
+ */
+public class StructuredFanOutExample {
+
+    private static final int SUBTASKS = 8;
+    private static final int FAILING_SUBTASK = 3;
+
+    private static final AtomicLong failedAt = new AtomicLong();
+    private static final AtomicLong wastedNanos = new AtomicLong();
+
+    public static void main(String[] args) throws InterruptedException {
+        submitAndGet();
+        structured();
+    }
+
+    private static void submitAndGet() throws InterruptedException {
+        reset();
+        ExecutorService executorService = Executors.newFixedThreadPool(SUBTASKS);
+        long start = System.nanoTime();
+
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < SUBTASKS; i++) {
+            futures.add(executorService.submit(subtask(i)));
+        }
+        try {
+            for (Future<String> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            report("submit-and-get", start, e.getCause());
+        }
+
+        executorService.shutdown();
+        executorService.awaitTermination(10, TimeUnit.SECONDS);
+        System.out.printf("  wasted busy time after the failure: %d ms%n%n", TimeUnit.NANOSECONDS.toMillis(wastedNanos.get()));
+    }
+
+    private static void structured() throws InterruptedException {
+        reset();
+        long start = System.nanoTime();
+
+        try (FanOutScope<String> scope = new FanOutScope<>(FanOutScope.Policy.ALL_SUCCESSFUL)) {
+            for (int i = 0; i < SUBTASKS; i++) {
+                scope.fork(subtask(i));
+            }
+            scope.join(2, TimeUnit.SECONDS).throwIfFailed();
+        } catch (ExecutionException e) {
+            report("FanOutScope", start, e.getCause());
+        } catch (TimeoutException e) {
+            System.out.println("FanOutScope: deadline exceeded, subtasks cancelled");
+        }
+        // close() has already waited for every subtask thread, so the number below is final
+        System.out.printf("  wasted busy time after the failure: %d ms%n", TimeUnit.NANOSECONDS.toMillis(wastedNanos.get()));
+    }
+
+    private static Callable<String> subtask(int id) {
+        return () -> {
+            long start = System.nanoTime();
+            long budget = TimeUnit.MILLISECONDS.toNanos(id == FAILING_SUBTASK ? 50 : 400);
+            while (System.nanoTime() - start < budget) {
+                if (Thread.currentThread().isInterrupted()) {
+                    chargeWaste(start);
+                    throw new InterruptedException("Subtask " + id + " cancelled");
+                }
+                busyWork();
+                // Virtual threads are not time-sliced; yield so siblings interleave on few cores
+                Thread.yield();
+            }
+            if (id == FAILING_SUBTASK) {
+                failedAt.set(System.nanoTime());
+                throw new IllegalStateException("Subtask " + id + " failed");
+            }
+            chargeWaste(start);
+            return "Subtask " + id + " done";
+        };
+    }
+
+    // Adds the part of this subtask's run that happened after the failure
+    private static void chargeWaste(long start) {
+        long failure = failedAt.get();
+        if (failure != 0) {
+            wastedNanos.addAndGet(System.nanoTime() - Math.max(start, failure));
+        }
+    }
+
+    private static void busyWork() {
+        double x = 0;
+        for (int i = 0; i < 1000; i++) {
+            x += Math.sqrt(i);
+        }
+        if (x < 0) {
+            System.out.println(x);
+        }
+    }
+
+    private static void reset() {
+        failedAt.set(0);
+        wastedNanos.set(0);
+    }
+
+    private static void report(String name, long start, Throwable failure) {
+        long noticedAfter = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - failedAt.get());
+        System.out.printf("%s: caller saw \"%s\" after %d ms (%d ms after it happened)%n", name,
+                failure.getMessage(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), noticedAfter);
+    }
+}
@@ -0,0 +1,101 @@
+package ExecutorService.Hedging;
+
+import ExecutorService.SubmitvsExecute.Submit.Callable.Customer;
+import ExecutorService.SubmitvsExecute.Submit.Callable.PolicyReminderTask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batch latency with and without hedging.
+ *
+ * Every simulated reminder takes ~10ms, but 2% of attempts hit a slow mail server and take
+ * 200ms. A batch of 20 reminders is only done when its slowest reminder is done, so almost
+ * every batch waits for a straggler. With hedging, a reminder still running after the p95 of
+ * recent latencies gets a second attempt that usually finishes in 10ms.
+ *
+ * Usage: java ExecutorService.Hedging.HedgingBenchmark [batches]
+ */
+public class HedgingBenchmark {
+
+    private static final int BATCH_SIZE = 20;
+
+    public static void main(String[] args) throws Exception {
+        int batches = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+
+        long[] plain = runBatches(0.0, batches);
+        long[] hedged = runBatches(0.10, batches);
+        report("no hedging", plain);
+        report("hedging at p95", hedged);
+
+        deadlineDemo();
+    }
+
+    private static long[] runBatches(double maxHedgeRatio, int batches) throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(32);
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        HedgingExecutor hedging = new HedgingExecutor(workers, timer, 0.95, maxHedgeRatio);
+
+        // Warm-up batches fill the latency window before anything is measured
+        int warmUp = 20;
+        long[] batchMillis = new long[batches];
+        for (int b = -warmUp; b < batches; b++) {
+            long start = System.nanoTime();
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                int customer = i;
+                futures.add(hedging.submit(() -> simulatedSend(customer)));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get();
+            if (b >= 0) {
+                batchMillis[b] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+        }
+        System.out.printf("%s: %d hedges for %d calls%n",
+                maxHedgeRatio > 0 ? "hedged" : "plain", hedging.getHedges(), hedging.getCalls());
+
+        workers.shutdownNow();
+        timer.shutdownNow();
+        return batchMillis;
+    }
+
+    private static String simulatedSend(int customer) throws InterruptedException {
+        boolean slowServer = ThreadLocalRandom.current().nextInt(100) < 2;
+        Thread.sleep(slowServer ? 200 : 10);
+        return "Reminder sent to customer " + customer;
+    }
+
+    private static void report(String name, long[] batchMillis) {
+        long[] sorted = batchMillis.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-16s batch p50 = %4d ms, p99 = %4d ms%n", name,
+                sorted[sorted.length / 2], sorted[(int) Math.ceil(sorted.length * 0.99) - 1]);
+    }
+
+    // PolicyReminderTask takes 1 second; with a 500ms budget get() returns after 500ms, not 1s
+    private static void deadlineDemo() throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        HedgingExecutor hedging = new HedgingExecutor(workers, timer, 0.95, 0.05);
+
+        PolicyReminderTask task = new PolicyReminderTask(new Customer("Alice", "alice@example.com"));
+        long start = System.nanoTime();
+        try {
+            System.out.println(hedging.submit(task, 500, TimeUnit.MILLISECONDS).get());
+        } catch (ExecutionException e) {
+            System.out.println("Gave up after " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                    + " ms: " + e.getCause());
+        }
+
+        workers.shutdownNow();
+        timer.shutdownNow();
+    }
+}
@@ -0,0 +1,197 @@
+package ExecutorService.Hedging;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hedged requests for Callable tasks ("The Tail at Scale", Dean and Barroso).
+ *
+ * Each submitted task starts on the worker pool. If it has not finished after the configured
+ * percentile of recent latencies (say p95), a duplicate is submitted and whichever attempt
+ * finishes first wins; the loser is cancelled with an interrupt. Only the slow few percent of
+ * calls are duplicated, so the extra load is small, and a hedge budget caps it anyway.
+ *
+ * Every call can also carry a deadline: the returned future then completes exceptionally with a
+ * TimeoutException once the budget is spent, so get() never blocks past it.
+ *
+ * Tasks must be safe to run twice (idempotent), otherwise hedging is not allowed.
+ */
+public class HedgingExecutor {
+
+    private final ExecutorService workers;
+    private final ScheduledExecutorService timer;
+    private final LatencyTracker latencies;
+    private final int minSamples;
+    private final double maxHedgeRatio;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+
+    /**
+     * @param workers       pool that runs both the original attempt and the hedge
+     * @param timer         used only to trigger hedges and deadlines, never runs task code
+     * @param percentile    hedge once a call is slower than this percentile of recent calls
+     * @param maxHedgeRatio at most this fraction of calls may be hedged, e.g. 0.05
+     */
+    public HedgingExecutor(ExecutorService workers, ScheduledExecutorService timer,
+                           double percentile, double maxHedgeRatio) {
+        this.workers = workers;
+        this.timer = timer;
+        this.latencies = new LatencyTracker(1024, percentile);
+        this.minSamples = 100;
+        this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param deadline overall budget for the call, 0 for none
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task, long deadline, TimeUnit unit) {
+        HedgedCall<T> call = new HedgedCall<>(task);
+        call.start(0);
+        // Only accepted calls count towards the hedge budget
+        calls.incrementAndGet();
+
+        // Not enough history yet to know what "slow" means
+        if (latencies.count() >= minSamples) {
+            long hedgeAfter = latencies.percentileNanos();
+            call.hedgeTimer = timer.schedule(call::hedge, hedgeAfter, TimeUnit.NANOSECONDS);
+        }
+        if (deadline > 0) {
+            call.deadlineTimer = timer.schedule(
+                    () -> call.result.completeExceptionally(
+                            new TimeoutException("Deadline of " + deadline + " " + unit + " exceeded")),
+                    deadline, unit);
+        }
+        call.result.whenComplete((value, error) -> call.finish());
+        return call.result;
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getHedges() {
+        return hedges.get();
+    }
+
+    private boolean tryAcquireHedgeBudget() {
+        while (true) {
+            long used = hedges.get();
+            if (used + 1 > calls.get() * maxHedgeRatio) {
+                return false;
+            }
+            if (hedges.compareAndSet(used, used + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private final class HedgedCall<T> {
+        private final Callable<T> task;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        // [0] = original attempt, [1] = hedge
+        private final AtomicReferenceArray<Future<?>> attempts = new AtomicReferenceArray<>(2);
+        private final AtomicInteger running = new AtomicInteger();
+        private final long submittedAt = System.nanoTime();
+        // Set before the failed attempt leaves running, so whoever takes running to 0 sees it
+        private volatile Throwable lastFailure;
+        private volatile ScheduledFuture<?> hedgeTimer;
+        private volatile ScheduledFuture<?> deadlineTimer;
+
+        HedgedCall(Callable<T> task) {
+            this.task = task;
+        }
+
+        void start(int attempt) {
+            running.incrementAndGet();
+            try {
+                attempts.set(attempt, workers.submit(() -> runAttempt(attempt)));
+            } catch (RejectedExecutionException e) {
+                if (attempt == 0) {
+                    running.decrementAndGet();
+                    throw e;
+                }
+                // No room for a hedge: the original attempt keeps going, unless it already failed
+                failIfLast();
+                return;
+            }
+            if (result.isDone()) {
+                // Finished while we were submitting: make sure the new attempt does not linger
+                attempts.get(attempt).cancel(true);
+            }
+        }
+
+        void hedge() {
+            if (!result.isDone() && tryAcquireHedgeBudget()) {
+                start(1);
+            }
+        }
+
+        private void runAttempt(int attempt) {
+            if (result.isDone()) {
+                running.decrementAndGet();
+                return;
+            }
+            try {
+                T value = task.call();
+                if (result.complete(value)) {
+                    // The call's latency as the caller saw it, hedge delay included
+                    latencies.record(System.nanoTime() - submittedAt);
+                    cancelOthers(attempt);
+                }
+            } catch (Throwable e) {
+                lastFailure = e;
+            } finally {
+                failIfLast();
+            }
+        }
+
+        // Only fail the call when no other attempt can still succeed
+        private void failIfLast() {
+            if (running.decrementAndGet() == 0 && !result.isDone()) {
+                Throwable failure = lastFailure;
+                result.completeExceptionally(failure != null ? failure
+                        : new IllegalStateException("Every attempt ended without a result"));
+            }
+        }
+
+        private void cancelOthers(int winner) {
+            for (int i = 0; i < attempts.length(); i++) {
+                Future<?> attempt = attempts.get(i);
+                if (i != winner && attempt != null) {
+                    attempt.cancel(true);
+                }
+            }
+        }
+
+        // Runs once the result is settled by a winner, a failure or the deadline
+        void finish() {
+            ScheduledFuture<?> hedge = hedgeTimer;
+            if (hedge != null) {
+                hedge.cancel(false);
+            }
+            ScheduledFuture<?> deadline = deadlineTimer;
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            if (result.isCompletedExceptionally()) {
+                // Deadline or failure: nobody wants the remaining attempts any more
+                cancelOthers(-1);
+            }
+        }
+    }
+}
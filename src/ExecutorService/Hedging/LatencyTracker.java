@@ -0,0 +1,65 @@
+package ExecutorService.Hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the last {@code windowSize} task latencies in a ring buffer and answers percentile
+ * queries over them. Recording is one atomic increment plus one array store; the percentile is
+ * recomputed (copy + sort) at most once every {@code recomputeEvery} recordings.
+ */
+public class LatencyTracker {
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final double percentile;
+    private final int recomputeEvery;
+
+    private volatile long cachedPercentileNanos = Long.MAX_VALUE;
+    private volatile long cachedAt = -1;
+
+    /**
+     * @param percentile e.g. 0.95 for p95
+     */
+    public LatencyTracker(int windowSize, double percentile) {
+        if (windowSize <= 0 || percentile <= 0 || percentile >= 1) {
+            throw new IllegalArgumentException();
+        }
+        this.samples = new AtomicLongArray(windowSize);
+        this.percentile = percentile;
+        this.recomputeEvery = Math.max(1, windowSize / 16);
+    }
+
+    public void record(long latencyNanos) {
+        long n = recorded.getAndIncrement();
+        samples.set((int) (n % samples.length()), latencyNanos);
+    }
+
+    public long count() {
+        return recorded.get();
+    }
+
+    /**
+     * The configured percentile of recent latencies, or Long.MAX_VALUE before any sample exists.
+     */
+    public long percentileNanos() {
+        long n = recorded.get();
+        if (n == 0) {
+            return Long.MAX_VALUE;
+        }
+        if (cachedAt >= 0 && n - cachedAt < recomputeEvery) {
+            return cachedPercentileNanos;
+        }
+        int size = (int) Math.min(n, samples.length());
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        long value = copy[(int) Math.min(size - 1, Math.ceil(percentile * size) - 1)];
+        // Benign race: two threads may both recompute, and both values are valid
+        cachedPercentileNanos = value;
+        cachedAt = n;
+        return value;
+    }
+}
@@ -0,0 +1,63 @@
+package ExecutorService.PersistentScheduler;
+
+import ExecutorService.ScheduledThreadPool.Customer;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Same reminders as ScheduledThreadPool.PolicyReminderService, but they survive a restart.
+// Run it once, kill it before the 5 second reminders fire, run it again: the second run
+// finds them in ./reminder-store and fires them in the catch-up burst instead of rebuilding.
+public class PersistentPolicyReminderService {
+    public static void main(String[] args) throws Exception {
+        Path storeDirectory = Paths.get(args.length > 0 ? args[0] : "reminder-store");
+
+        ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(3);
+        ReminderStore store = ReminderStore.open(storeDirectory);
+        // At most 100 overdue reminders per second after a restart, fsync every 200ms
+        PersistentReminderScheduler reminders =
+                new PersistentReminderScheduler(scheduledExecutorService, store, 100, 200);
+
+        if (store.size() > 0) {
+            int overdue = reminders.recover();
+            System.out.println("Recovered " + store.size() + " reminders, " + overdue + " overdue");
+        } else {
+            Customer[] customers = {
+                    new Customer("Alice", "alice@example.com"),
+                    new Customer("Bob", "bob@example.com"),
+                    new Customer("Charlie", "charlie@example.com"),
+                    new Customer("David", "david@example.com"),
+                    new Customer("Eve", "eve@example.com")
+            };
+            for (Customer customer : customers) {
+                reminders.schedule(customer, 5, TimeUnit.SECONDS);
+            }
+            for (Customer customer : customers) {
+                reminders.scheduleAtFixedRate(customer, 0, 10, TimeUnit.SECONDS);
+            }
+        }
+
+        // Compact the log every minute so the next startup mostly reads one snapshot
+        scheduledExecutorService.scheduleAtFixedRate(() -> {
+            try {
+                reminders.snapshot();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+
+        // Periodic reminders stay in the store, so the next run picks them up again
+        scheduledExecutorService.schedule(() -> {
+            try {
+                reminders.close();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            scheduledExecutorService.shutdown();
+            System.out.println("ScheduledExecutorService shutdown");
+        }, 60, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,165 @@
+package ExecutorService.PersistentScheduler;
+
+import ExecutorService.ScheduledThreadPool.Customer;
+import ExecutorService.ScheduledThreadPool.PolicyReminderCallableTask;
+import ExecutorService.ScheduledThreadPool.PolicyReminderRunnableTask;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Schedules policy reminders on any ScheduledExecutorService and records them in a
+ * ReminderStore, so they survive a restart of the process.
+ *
+ * On startup call recover(): reminders that are still in the future are scheduled normally,
+ * one-shot reminders that became due while the process was down are fired in a catch-up burst
+ * limited to catchUpPerSecond, so a long outage does not flood the worker pool (or the mail
+ * server). Fixed-rate reminders resume on their original grid; fixed-delay reminders run one
+ * delay after their last completed run (each completion is logged), or right away if that has
+ * passed.
+ */
+public class PersistentReminderScheduler implements Closeable {
+
+    private final ScheduledExecutorService scheduler;
+    private final ReminderStore store;
+    private final int catchUpPerSecond;
+    private final Map<Long, ScheduledFuture<?>> futures = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> syncTask;
+
+    /**
+     * @param syncIntervalMillis how often buffered log records are fsync'ed (group commit)
+     */
+    public PersistentReminderScheduler(ScheduledExecutorService scheduler, ReminderStore store,
+                                       int catchUpPerSecond, long syncIntervalMillis) {
+        if (catchUpPerSecond <= 0) {
+            throw new IllegalArgumentException("catchUpPerSecond must be positive: " + catchUpPerSecond);
+        }
+        this.scheduler = scheduler;
+        this.store = store;
+        this.catchUpPerSecond = catchUpPerSecond;
+        this.syncTask = scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                store.sync();
+            } catch (IOException e) {
+                // Keep the periodic task alive; the next sync retries
+                e.printStackTrace();
+            }
+        }, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public long schedule(Customer customer, long delay, TimeUnit unit) {
+        return add(ReminderEntry.Kind.ONE_SHOT, customer, delay, 0, unit);
+    }
+
+    public long scheduleAtFixedRate(Customer customer, long initialDelay, long period, TimeUnit unit) {
+        return add(ReminderEntry.Kind.FIXED_RATE, customer, initialDelay, period, unit);
+    }
+
+    public long scheduleWithFixedDelay(Customer customer, long initialDelay, long delay, TimeUnit unit) {
+        return add(ReminderEntry.Kind.FIXED_DELAY, customer, initialDelay, delay, unit);
+    }
+
+    public boolean cancel(long id) {
+        store.cancel(id);
+        ScheduledFuture<?> future = futures.remove(id);
+        return future != null && future.cancel(false);
+    }
+
+    public ScheduledFuture<?> getFuture(long id) {
+        return futures.get(id);
+    }
+
+    /**
+     * Reschedules everything found in the store. Returns how many reminders were overdue.
+     */
+    public int recover() {
+        long now = System.currentTimeMillis();
+        List<ReminderEntry> overdue = new ArrayList<>();
+        for (ReminderEntry entry : store.pending()) {
+            if (entry.getKind() != ReminderEntry.Kind.ONE_SHOT) {
+                // Periodic runs missed during the outage are coalesced into the next run
+                submit(entry, entry.nextRunAtMillis(now) - now);
+            } else if (entry.getFirstRunAtMillis() <= now) {
+                overdue.add(entry);
+            } else {
+                submit(entry, entry.getFirstRunAtMillis() - now);
+            }
+        }
+
+        // Oldest first, spread evenly so at most catchUpPerSecond reminders start each second
+        overdue.sort(Comparator.comparingLong(ReminderEntry::getFirstRunAtMillis));
+        for (int i = 0; i < overdue.size(); i++) {
+            long catchUpDelay = i * 1000L / catchUpPerSecond;
+            submit(overdue.get(i), catchUpDelay);
+        }
+        return overdue.size();
+    }
+
+    /**
+     * Compacts the on-disk log into a snapshot. Safe to call while reminders keep being scheduled.
+     */
+    public void snapshot() throws IOException {
+        store.snapshot();
+    }
+
+    /**
+     * Flushes the store. The scheduler itself is owned by the caller and is not shut down.
+     */
+    @Override
+    public void close() throws IOException {
+        syncTask.cancel(false);
+        store.close();
+    }
+
+    private long add(ReminderEntry.Kind kind, Customer customer, long delay, long period, TimeUnit unit) {
+        long id = store.nextId();
+        long delayMillis = unit.toMillis(Math.max(delay, 0));
+        ReminderEntry entry = new ReminderEntry(id, kind, customer.getName(), customer.getEmail(),
+                System.currentTimeMillis() + delayMillis, unit.toMillis(period));
+        // Log first: a reminder that is scheduled but not logged would be lost on a crash
+        store.schedule(entry);
+        submit(entry, delayMillis);
+        return id;
+    }
+
+    private void submit(ReminderEntry entry, long delayMillis) {
+        long id = entry.getId();
+        Customer customer = entry.getCustomer();
+        ScheduledFuture<?> future;
+        switch (entry.getKind()) {
+            case ONE_SHOT -> {
+                PolicyReminderCallableTask task = new PolicyReminderCallableTask(customer);
+                future = scheduler.schedule(() -> {
+                    String result = task.call();
+                    store.complete(id);
+                    futures.remove(id);
+                    return result;
+                }, delayMillis, TimeUnit.MILLISECONDS);
+            }
+            case FIXED_RATE -> future = scheduler.scheduleAtFixedRate(new PolicyReminderRunnableTask(customer),
+                    delayMillis, entry.getPeriodMillis(), TimeUnit.MILLISECONDS);
+            case FIXED_DELAY -> {
+                PolicyReminderRunnableTask task = new PolicyReminderRunnableTask(customer);
+                future = scheduler.scheduleWithFixedDelay(() -> {
+                    task.run();
+                    // The next run is timed from here, after a restart too
+                    store.ran(id, System.currentTimeMillis());
+                }, delayMillis, entry.getPeriodMillis(), TimeUnit.MILLISECONDS);
+            }
+            default -> throw new IllegalStateException("Unknown reminder kind " + entry.getKind());
+        }
+        futures.put(id, future);
+        if (entry.getKind() == ReminderEntry.Kind.ONE_SHOT && future.isDone()) {
+            // Ran before we could register it; don't leave a stale future behind
+            futures.remove(id);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package ExecutorService.PersistentScheduler;
+
+import ExecutorService.ScheduledThreadPool.Customer;
+
+/**
+ * One scheduled reminder as it is written to disk.
+ * Times are wall-clock epoch millis because System.nanoTime() means nothing after a restart.
+ */
+public final class ReminderEntry {
+
+    public enum Kind {
+        ONE_SHOT,     // PolicyReminderCallableTask via schedule()
+        FIXED_RATE,   // PolicyReminderRunnableTask via scheduleAtFixedRate()
+        FIXED_DELAY   // PolicyReminderRunnableTask via scheduleWithFixedDelay()
+    }
+
+    private final long id;
+    private final Kind kind;
+    private final String customerName;
+    private final String customerEmail;
+    private final long firstRunAtMillis;
+    private final long periodMillis;
+    // End of the last completed run of a FIXED_DELAY reminder, 0 if it has not run yet
+    private final long lastCompletedAtMillis;
+
+    public ReminderEntry(long id, Kind kind, String customerName, String customerEmail,
+                         long firstRunAtMillis, long periodMillis) {
+        this(id, kind, customerName, customerEmail, firstRunAtMillis, periodMillis, 0);
+    }
+
+    private ReminderEntry(long id, Kind kind, String customerName, String customerEmail,
+                          long firstRunAtMillis, long periodMillis, long lastCompletedAtMillis) {
+        this.id = id;
+        this.kind = kind;
+        this.customerName = customerName;
+        this.customerEmail = customerEmail;
+        this.firstRunAtMillis = firstRunAtMillis;
+        this.periodMillis = periodMillis;
+        this.lastCompletedAtMillis = lastCompletedAtMillis;
+    }
+
+    /**
+     * This entry after a run that completed at {@code completedAtMillis}.
+     */
+    public ReminderEntry withLastCompletedAt(long completedAtMillis) {
+        return new ReminderEntry(id, kind, customerName, customerEmail, firstRunAtMillis, periodMillis,
+                completedAtMillis);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public Customer getCustomer() {
+        return new Customer(customerName, customerEmail);
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public long getFirstRunAtMillis() {
+        return firstRunAtMillis;
+    }
+
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    public long getLastCompletedAtMillis() {
+        return lastCompletedAtMillis;
+    }
+
+    /**
+     * Next time this reminder should run at or after {@code nowMillis}, skipping runs missed while
+     * the process was down:
+     * - FIXED_RATE stays on the original grid of firstRunAt + k * period
+     * - FIXED_DELAY runs one period after its last completed run (or at firstRunAt if it never
+     *   ran), or right away if that time has passed
+     */
+    public long nextRunAtMillis(long nowMillis) {
+        if (kind == Kind.FIXED_DELAY) {
+            long due = lastCompletedAtMillis > 0 ? lastCompletedAtMillis + periodMillis : firstRunAtMillis;
+            return Math.max(due, nowMillis);
+        }
+        if (kind == Kind.ONE_SHOT || nowMillis <= firstRunAtMillis) {
+            return firstRunAtMillis;
+        }
+        long periodsElapsed = (nowMillis - firstRunAtMillis + periodMillis - 1) / periodMillis;
+        return firstRunAtMillis + periodsElapsed * periodMillis;
+    }
+}
@@ -0,0 +1,402 @@
+package ExecutorService.PersistentScheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of scheduled reminders plus periodic compacted snapshots.
+ *
+ * Files in the store directory:
+ * - reminders-N.log     log segments, one record per schedule / complete / cancel, and one per
+ *                       completed run of a fixed-delay reminder (its next run is timed from it)
+ * - reminders.snapshot  [long sealed generation][long next id] + every live entry at the moment
+ *                       that generation was sealed
+ *
+ * Every record is [int length][int crc32][payload], so a torn write at the end of a log
+ * (crash in the middle of an append) is detected and cut off on recovery.
+ *
+ * Appends go into an in-memory buffer and reach the file in large writes; nothing is fsync'ed
+ * per entry. sync() is meant to be called periodically (group commit), so a crash can lose
+ * at most the last sync interval.
+ */
+public class ReminderStore implements Closeable {
+
+    private static final String SNAPSHOT_FILE = "reminders.snapshot";
+    private static final String LOG_PREFIX = "reminders-";
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final byte RECORD_SCHEDULE = 1;
+    private static final byte RECORD_COMPLETE = 2;
+    private static final byte RECORD_CANCEL = 3;
+    private static final byte RECORD_RUN = 4;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 64 * 1024;
+    // Recovery maps files in windows so logs larger than 2GB still work
+    private static final long MAP_WINDOW_BYTES = 1L << 30;
+
+    private final Path directory;
+    private final Map<Long, ReminderEntry> live = new HashMap<>();
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(1 << 20);
+    private final CRC32 crc = new CRC32();
+
+    private FileChannel log;
+    private long logGeneration;
+    private long nextId = 1;
+    private boolean snapshotInProgress;
+
+    private ReminderStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the store, replaying the latest snapshot and every newer log segment.
+     */
+    public static ReminderStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        ReminderStore store = new ReminderStore(directory);
+        store.recover();
+        return store;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Writes
+
+    public synchronized long nextId() {
+        return nextId++;
+    }
+
+    public synchronized void schedule(ReminderEntry entry) {
+        appendRecord(encodeSchedule(entry));
+        live.put(entry.getId(), entry);
+    }
+
+    public synchronized void complete(long id) {
+        if (live.remove(id) != null) {
+            appendRecord(encodeRemoval(RECORD_COMPLETE, id));
+        }
+    }
+
+    public synchronized void cancel(long id) {
+        if (live.remove(id) != null) {
+            appendRecord(encodeRemoval(RECORD_CANCEL, id));
+        }
+    }
+
+    /**
+     * Records that a run of a periodic reminder completed at {@code completedAtMillis}.
+     */
+    public synchronized void ran(long id, long completedAtMillis) {
+        ReminderEntry entry = live.get(id);
+        if (entry != null) {
+            appendRecord(encodeRun(id, completedAtMillis));
+            live.put(id, entry.withLastCompletedAt(completedAtMillis));
+        }
+    }
+
+    /**
+     * Pushes buffered records to the OS and fsyncs the current segment.
+     */
+    public void sync() throws IOException {
+        FileChannel channel;
+        synchronized (this) {
+            flushBuffer();
+            channel = log;
+        }
+        // force() outside the lock so appends are not blocked while the disk catches up
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // snapshot() sealed this segment in the meantime, and it forces before closing
+        }
+    }
+
+    /**
+     * Compacts the store: seals the current log segment, writes every live entry into a new
+     * snapshot and deletes the sealed segments. Only the hand-over to a new segment happens under
+     * the lock; the snapshot itself is written while other threads keep appending.
+     */
+    public void snapshot() throws IOException {
+        FileChannel sealed;
+        List<ReminderEntry> entries;
+        long sealedGeneration;
+        long idsIssued;
+        synchronized (this) {
+            if (snapshotInProgress) {
+                return;
+            }
+            snapshotInProgress = true;
+            flushBuffer();
+            sealed = log;
+            sealedGeneration = logGeneration;
+            entries = new ArrayList<>(live.values());
+            idsIssued = nextId;
+            openLog(sealedGeneration + 1);
+        }
+        try {
+            // As in sync(), the fsync of the sealed segment does not hold up appends to the new one
+            try {
+                sealed.force(false);
+            } finally {
+                sealed.close();
+            }
+            writeSnapshot(entries, sealedGeneration, idsIssued);
+            for (Map.Entry<Long, Path> segment : logSegments().entrySet()) {
+                if (segment.getKey() <= sealedGeneration) {
+                    Files.delete(segment.getValue());
+                }
+            }
+        } finally {
+            synchronized (this) {
+                snapshotInProgress = false;
+            }
+        }
+    }
+
+    public synchronized Collection<ReminderEntry> pending() {
+        return new ArrayList<>(live.values());
+    }
+
+    public synchronized int size() {
+        return live.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        synchronized (this) {
+            log.close();
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Encoding
+
+    private ByteBuffer encodeSchedule(ReminderEntry entry) {
+        byte[] name = entry.getCustomerName().getBytes(StandardCharsets.UTF_8);
+        byte[] email = entry.getCustomerEmail().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(1 + 8 + 1 + 8 + 8 + 2 + name.length + 2 + email.length);
+        payload.put(RECORD_SCHEDULE)
+                .putLong(entry.getId())
+                .put((byte) entry.getKind().ordinal())
+                .putLong(entry.getFirstRunAtMillis())
+                .putLong(entry.getPeriodMillis())
+                .putShort((short) name.length).put(name)
+                .putShort((short) email.length).put(email);
+        return payload.flip();
+    }
+
+    private ByteBuffer encodeRun(long id, long completedAtMillis) {
+        ByteBuffer payload = ByteBuffer.allocate(1 + 8 + 8);
+        payload.put(RECORD_RUN).putLong(id).putLong(completedAtMillis);
+        return payload.flip();
+    }
+
+    private ByteBuffer encodeRemoval(byte type, long id) {
+        ByteBuffer payload = ByteBuffer.allocate(1 + 8);
+        payload.put(type).putLong(id);
+        return payload.flip();
+    }
+
+    private void appendRecord(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (length > MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("Reminder record too large: " + length + " bytes");
+        }
+        if (writeBuffer.remaining() < HEADER_BYTES + length) {
+            try {
+                flushBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        crc.reset();
+        crc.update(payload.duplicate());
+        writeBuffer.putInt(length).putInt((int) crc.getValue()).put(payload);
+    }
+
+    private void flushBuffer() throws IOException {
+        writeBuffer.flip();
+        while (writeBuffer.hasRemaining()) {
+            log.write(writeBuffer);
+        }
+        writeBuffer.clear();
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Recovery
+
+    private void recover() throws IOException {
+        long coveredGeneration = 0;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            coveredGeneration = replay(snapshot, true);
+        }
+        long lastGeneration = coveredGeneration;
+        for (Map.Entry<Long, Path> segment : logSegments().entrySet()) {
+            if (segment.getKey() <= coveredGeneration) {
+                // Left behind by a crash after the snapshot was renamed into place
+                Files.delete(segment.getValue());
+            } else {
+                replay(segment.getValue(), false);
+                lastGeneration = segment.getKey();
+            }
+        }
+        for (long id : live.keySet()) {
+            nextId = Math.max(nextId, id + 1);
+        }
+        // Never append to a replayed segment: its tail might be a torn record
+        openLog(lastGeneration + 1);
+    }
+
+    /**
+     * Replays one file with a sequential read through a memory-mapped window.
+     * Returns the generation stored in a snapshot header, 0 for log segments.
+     */
+    private long replay(Path file, boolean isSnapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long position = 0;
+            long generation = 0;
+            if (isSnapshot) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 16);
+                generation = header.getLong();
+                nextId = Math.max(nextId, header.getLong());
+                position = 16;
+            }
+            long windowStart = position;
+            MappedByteBuffer window = map(channel, windowStart, fileSize);
+            while (position + HEADER_BYTES <= fileSize) {
+                if (window.remaining() < HEADER_BYTES + MAX_RECORD_BYTES && windowStart + window.limit() < fileSize) {
+                    // Slide the window so the next record is never split across two mappings
+                    windowStart = position;
+                    window = map(channel, windowStart, fileSize);
+                }
+                int length = window.getInt();
+                int expectedCrc = window.getInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES || length > window.remaining()) {
+                    break;  // torn tail
+                }
+                ByteBuffer payload = window.slice(window.position(), length);
+                crc.reset();
+                crc.update(payload.duplicate());
+                if ((int) crc.getValue() != expectedCrc) {
+                    break;  // torn tail
+                }
+                window.position(window.position() + length);
+                position += HEADER_BYTES + length;
+                apply(payload);
+            }
+            return generation;
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long position, long fileSize) throws IOException {
+        long length = Math.min(MAP_WINDOW_BYTES, fileSize - position);
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+    }
+
+    private void apply(ByteBuffer payload) {
+        byte type = payload.get();
+        long id = payload.getLong();
+        switch (type) {
+            case RECORD_SCHEDULE -> {
+                ReminderEntry.Kind kind = ReminderEntry.Kind.values()[payload.get()];
+                long firstRunAt = payload.getLong();
+                long period = payload.getLong();
+                String name = readString(payload);
+                String email = readString(payload);
+                live.put(id, new ReminderEntry(id, kind, name, email, firstRunAt, period));
+            }
+            case RECORD_COMPLETE, RECORD_CANCEL -> live.remove(id);
+            case RECORD_RUN -> {
+                long completedAt = payload.getLong();
+                live.computeIfPresent(id, (key, entry) -> entry.withLastCompletedAt(completedAt));
+            }
+            default -> throw new IllegalStateException("Unknown reminder record type " + type);
+        }
+    }
+
+    private static String readString(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.getShort() & 0xFFFF];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Files
+
+    private void openLog(long generation) throws IOException {
+        logGeneration = generation;
+        log = FileChannel.open(directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private void writeSnapshot(List<ReminderEntry> entries, long coveredGeneration, long nextId) throws IOException {
+        Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        CRC32 snapshotCrc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putLong(coveredGeneration).putLong(nextId);
+            for (ReminderEntry entry : entries) {
+                putRecord(channel, buffer, snapshotCrc, encodeSchedule(entry));
+                if (entry.getLastCompletedAtMillis() > 0) {
+                    putRecord(channel, buffer, snapshotCrc, encodeRun(entry.getId(), entry.getLastCompletedAtMillis()));
+                }
+            }
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void putRecord(FileChannel channel, ByteBuffer buffer, CRC32 snapshotCrc, ByteBuffer payload)
+            throws IOException {
+        if (buffer.remaining() < HEADER_BYTES + payload.remaining()) {
+            writeFully(channel, buffer);
+        }
+        snapshotCrc.reset();
+        snapshotCrc.update(payload.duplicate());
+        buffer.putInt(payload.remaining()).putInt((int) snapshotCrc.getValue()).put(payload);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private TreeMap<Long, Path> logSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String generation = name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length());
+                segments.put(Long.parseLong(generation), file);
+            }
+        }
+        return segments;
+    }
+}
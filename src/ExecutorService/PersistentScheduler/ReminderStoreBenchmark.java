@@ -0,0 +1,55 @@
+package ExecutorService.PersistentScheduler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * How fast can a restarted scheduler get its pending reminders back?
+ *
+ * Writes N schedule records (plus completions for 10% of them), optionally compacts half way,
+ * then reopens the store and times the replay.
+ *
+ * Usage: java ExecutorService.PersistentScheduler.ReminderStoreBenchmark [reminders]
+ */
+public class ReminderStoreBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int reminders = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        Path directory = Files.createTempDirectory("reminder-store");
+
+        try {
+            ReminderStore store = ReminderStore.open(directory);
+            long now = System.currentTimeMillis();
+            long start = System.nanoTime();
+            for (int i = 0; i < reminders; i++) {
+                long id = store.nextId();
+                store.schedule(new ReminderEntry(id, ReminderEntry.Kind.ONE_SHOT,
+                        "Customer-" + i, "customer" + i + "@example.com", now + 60_000 + i, 0));
+                if (i % 10 == 0) {
+                    store.complete(id);
+                }
+                if (i == reminders / 2) {
+                    store.snapshot();
+                }
+            }
+            store.close();
+            long writeNanos = System.nanoTime() - start;
+            System.out.printf("append: %,d reminders in %d ms (%,.0f ops/s)%n",
+                    reminders, writeNanos / 1_000_000, reminders / (writeNanos / 1e9));
+
+            start = System.nanoTime();
+            ReminderStore recovered = ReminderStore.open(directory);
+            long recoverNanos = System.nanoTime() - start;
+            System.out.printf("recover: %,d pending reminders in %d ms%n",
+                    recovered.size(), recoverNanos / 1_000_000);
+            recovered.close();
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
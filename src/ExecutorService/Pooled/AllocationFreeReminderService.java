@@ -0,0 +1,122 @@
+package ExecutorService.Pooled;
+
+import ExecutorService.FixedThreadPool.Customer;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends 2M reminders (64 in flight at a time) through 4 worker threads and measures how many bytes
+ * every thread in the JVM allocated meanwhile (com.sun.management.ThreadMXBean), per reminder.
+ *
+ * - newFixedThreadPool + submit(Callable): a lambda, a FutureTask, a queue node and the result
+ *   String per reminder
+ * - PooledTaskExecutor: the same work written into a per-slot StringBuilder, slots recycled
+ *
+ * The send is only the string building part of PolicyReminderTask (no sleep, no println), so the
+ * executor's own allocations are what gets measured.
+ */
+public class AllocationFreeReminderService {
+
+    private static final int THREADS = 4;
+    private static final int IN_FLIGHT = 64;
+    private static final int REMINDERS = 2_000_000;
+    private static final int ROUNDS = 5;
+
+    private static final Customer[] customers = new Customer[1024];
+
+    public static void main(String[] args) throws Exception {
+        for (int i = 0; i < customers.length; i++) {
+            customers[i] = new Customer("Customer-" + i, "customer" + i + "@example.com");
+        }
+
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) Executors.newFixedThreadPool(THREADS);
+        // Threads must exist before measure() takes its snapshot of thread ids
+        pool.prestartAllCoreThreads();
+        for (int round = 1; round <= ROUNDS; round++) {
+            measure("newFixedThreadPool.submit, round " + round, () -> runFixedPool(pool));
+        }
+        pool.shutdown();
+
+        PooledTaskExecutor<Customer, StringBuilder> pooled = new PooledTaskExecutor<>(THREADS, IN_FLIGHT,
+                () -> new StringBuilder(64), AllocationFreeReminderService::sendReminder);
+        for (int round = 1; round <= ROUNDS; round++) {
+            measure("PooledTaskExecutor, round " + round, () -> runPooled(pooled));
+        }
+        pooled.shutdown();
+        pooled.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // What PolicyReminderTask builds, written into a reusable holder
+    private static void sendReminder(Customer customer, StringBuilder result) {
+        result.setLength(0);
+        result.append("Reminder sent to ").append(customer.getName());
+    }
+
+    private static long runFixedPool(ExecutorService pool) throws Exception {
+        @SuppressWarnings("unchecked")
+        Future<String>[] inFlight = (Future<String>[]) new Future<?>[IN_FLIGHT];
+        long checksum = 0;
+        for (int i = 0; i < REMINDERS; i += IN_FLIGHT) {
+            for (int j = 0; j < IN_FLIGHT; j++) {
+                Customer customer = customers[(i + j) & (customers.length - 1)];
+                inFlight[j] = pool.submit(() -> "Reminder sent to " + customer.getName());
+            }
+            for (int j = 0; j < IN_FLIGHT; j++) {
+                checksum += inFlight[j].get().length();
+            }
+        }
+        return checksum;
+    }
+
+    private static long runPooled(PooledTaskExecutor<Customer, StringBuilder> pooled) throws Exception {
+        @SuppressWarnings("unchecked")
+        PooledTaskExecutor.Slot<Customer, StringBuilder>[] inFlight =
+                (PooledTaskExecutor.Slot<Customer, StringBuilder>[]) new PooledTaskExecutor.Slot<?, ?>[IN_FLIGHT];
+        long checksum = 0;
+        for (int i = 0; i < REMINDERS; i += IN_FLIGHT) {
+            for (int j = 0; j < IN_FLIGHT; j++) {
+                inFlight[j] = pooled.submit(customers[(i + j) & (customers.length - 1)]);
+            }
+            for (int j = 0; j < IN_FLIGHT; j++) {
+                checksum += inFlight[j].await().length();
+                inFlight[j].release();
+            }
+        }
+        return checksum;
+    }
+
+    private static void measure(String name, Run run) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        long before = sum(threads.getThreadAllocatedBytes(ids));
+        long start = System.nanoTime();
+        long checksum = run.run();
+        long elapsed = System.nanoTime() - start;
+        long after = sum(threads.getThreadAllocatedBytes(ids));
+
+        long expected = 0;
+        for (int i = 0; i < REMINDERS; i++) {
+            expected += "Reminder sent to ".length() + customers[i & (customers.length - 1)].getName().length();
+        }
+        System.out.printf("%-36s %8.1f bytes/reminder, %6.2f M reminders/s%s%n", name,
+                (double) (after - before) / REMINDERS, REMINDERS * 1e3 / elapsed,
+                checksum == expected ? "" : "  CHECKSUM MISMATCH");
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += Math.max(0, value);
+        }
+        return total;
+    }
+
+    private interface Run {
+        long run() throws Exception;
+    }
+}
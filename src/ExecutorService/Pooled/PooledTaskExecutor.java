@@ -0,0 +1,333 @@
+package ExecutorService.Pooled;
+
+import ExecutorService.ThreadPool.CustomThreadFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Executor whose steady-state submit/complete path allocates nothing.
+ *
+ * executor.submit(new PolicyReminderTask(customer)) allocates the task, a FutureTask, a
+ * LinkedBlockingQueue node and the result String on every call. Here all of that is created once:
+ * - a fixed pool of Slots, each holding an input reference, a reusable result holder (e.g. a
+ *   StringBuilder) and the completion state, so a Slot is both the task and its future
+ * - free slots and queued slots travel through two preallocated IndexRings (array queues of slot
+ *   indexes, no nodes)
+ * - the job is a single BiConsumer(input, resultHolder) shared by every task, and it writes its
+ *   result into the holder instead of returning a new object
+ * - idle workers and waiting callers use LockSupport.park/unpark, which do not allocate
+ *
+ * Usage: submit(input) returns a Slot; await() it, read result(), then release() it so the slot
+ * can be reused. A Slot must not be touched after release(). execute(input) is fire-and-forget:
+ * the worker releases the slot itself. When every slot is in use, submit waits for one to be
+ * released, which also gives natural back-pressure to the caller.
+ */
+public final class PooledTaskExecutor<I, R> {
+
+    // Spinning only pays off when another core can make progress meanwhile (as in SynchronousQueue)
+    private static final boolean MULTI_CORE = Runtime.getRuntime().availableProcessors() > 1;
+    // How many empty polls a worker tries before it parks
+    private static final int SPINS_BEFORE_PARK = MULTI_CORE ? 64 : 0;
+    // How long await() spins before parking, short tasks usually finish within it
+    private static final int SPINS_BEFORE_AWAIT_PARK = MULTI_CORE ? 128 : 0;
+
+    private static final int FREE = 0;
+    private static final int QUEUED = 1;
+    private static final int DONE = 2;
+
+    private final Slot<I, R>[] slots;
+    private final IndexRing freeSlots;
+    private final IndexRing runQueue;
+    private final BiConsumer<? super I, ? super R> job;
+    private final Thread[] workers;
+    // 1 while the worker is parked (or about to park) waiting for work
+    private final AtomicIntegerArray parked;
+    private final AtomicInteger parkedCount = new AtomicInteger();
+    // Tasks in the run queue; briefly negative when a worker takes a task before it is counted
+    private final AtomicInteger queued = new AtomicInteger();
+    // Callers between their shutdown check and their offer; workers stay until it drops to 0
+    private final AtomicInteger submitting = new AtomicInteger();
+    private final CountDownLatch terminated;
+    private volatile boolean shutdown;
+
+    public PooledTaskExecutor(int threads, int capacity, Supplier<? extends R> resultHolders,
+                              BiConsumer<? super I, ? super R> job) {
+        this(threads, capacity, resultHolders, job, new CustomThreadFactory("pooled"));
+    }
+
+    /**
+     * @param capacity number of slots, i.e. tasks in flight; must be a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public PooledTaskExecutor(int threads, int capacity, Supplier<? extends R> resultHolders,
+                              BiConsumer<? super I, ? super R> job, ThreadFactory threadFactory) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.job = job;
+        this.slots = (Slot<I, R>[]) new Slot<?, ?>[capacity];
+        this.freeSlots = new IndexRing(capacity);
+        this.runQueue = new IndexRing(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot<>(this, i, resultHolders.get());
+            freeSlots.offer(i);
+        }
+        this.workers = new Thread[threads];
+        this.parked = new AtomicIntegerArray(threads);
+        this.terminated = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            int workerIndex = i;
+            workers[i] = threadFactory.newThread(() -> workerLoop(workerIndex));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues job(input, holder) and returns the slot to await(). Waits while all slots are in use.
+     */
+    public Slot<I, R> submit(I input) {
+        return enqueue(input, false);
+    }
+
+    /**
+     * Fire-and-forget: the slot is released by the worker as soon as the job has run.
+     */
+    public void execute(I input) {
+        enqueue(input, true);
+    }
+
+    private Slot<I, R> enqueue(I input, boolean autoRelease) {
+        if (input == null) {
+            throw new NullPointerException();
+        }
+        // Announced before acquireSlot() checks shutdown: a worker that sees shutdown and then
+        // submitting == 0 knows that every caller still on its way will see shutdown and reject
+        submitting.incrementAndGet();
+        Slot<I, R> slot;
+        try {
+            int index = acquireSlot();
+            slot = slots[index];
+            slot.input = input;
+            slot.autoRelease = autoRelease;
+            slot.state = QUEUED;
+            // Never fails: there are as many ring cells as slots
+            runQueue.offer(index);
+        } finally {
+            submitting.decrementAndGet();
+        }
+        // Like LinkedBlockingQueue, only the empty -> non-empty transition wakes a worker; a worker
+        // that takes a task while more are queued wakes the next one. Counted after the offer, so
+        // a worker that sees the count also sees the task.
+        if (queued.getAndIncrement() <= 0 && parkedCount.get() > 0) {
+            wakeOneWorker();
+        }
+        return slot;
+    }
+
+    private int acquireSlot() {
+        int spins = 0;
+        while (true) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            int index = freeSlots.poll();
+            if (index >= 0) {
+                return index;
+            }
+            // Every slot is in flight: back off until a caller or worker releases one
+            if (++spins < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else if (spins < SPINS_BEFORE_PARK + 8) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, 50_000);
+            }
+        }
+    }
+
+    private void wakeOneWorker() {
+        for (int i = 0; i < workers.length; i++) {
+            if (parked.compareAndSet(i, 1, 0)) {
+                parkedCount.decrementAndGet();
+                LockSupport.unpark(workers[i]);
+                return;
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Lifecycle
+
+    /**
+     * Stops accepting tasks; already queued tasks still run.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private void workerLoop(int workerIndex) {
+        try {
+            int spins = 0;
+            while (true) {
+                int index = runQueue.poll();
+                if (index >= 0) {
+                    if (queued.decrementAndGet() > 0 && parkedCount.get() > 0) {
+                        wakeOneWorker();
+                    }
+                    runSlot(slots[index]);
+                    spins = 0;
+                    continue;
+                }
+                if (shutdown) {
+                    if (submitting.get() == 0 && runQueue.isEmpty()) {
+                        return;
+                    }
+                    Thread.yield();  // a caller is still queueing a task we must run
+                    continue;
+                }
+                if (++spins <= SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                parked.set(workerIndex, 1);
+                parkedCount.incrementAndGet();
+                // Re-check after announcing: a submitter that queued before it saw the flag
+                if (runQueue.isEmpty() && !shutdown) {
+                    LockSupport.park(this);
+                }
+                if (parked.compareAndSet(workerIndex, 1, 0)) {
+                    parkedCount.decrementAndGet();
+                }
+                spins = 0;
+            }
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    // Never throws: even an Error from the job is the slot's failure, so the slot always
+    // completes and the worker lives on
+    private void runSlot(Slot<I, R> slot) {
+        try {
+            job.accept(slot.input, slot.result);
+        } catch (Throwable e) {
+            slot.failure = e;
+            if (slot.autoRelease) {
+                e.printStackTrace();
+            }
+        } finally {
+            slot.state = DONE;
+            if (slot.autoRelease) {
+                slot.release();
+            } else {
+                Thread waiter = slot.waiter;
+                if (waiter != null) {
+                    LockSupport.unpark(waiter);
+                }
+            }
+        }
+    }
+
+    private void recycle(int index) {
+        freeSlots.offer(index);
+    }
+
+    /**
+     * A pooled task together with its result; owned by the caller from submit() until release().
+     */
+    public static final class Slot<I, R> {
+        private final PooledTaskExecutor<I, R> executor;
+        private final int index;
+        private final R result;
+        private I input;
+        private Throwable failure;
+        private boolean autoRelease;
+        private volatile int state = FREE;
+        private volatile Thread waiter;
+
+        private Slot(PooledTaskExecutor<I, R> executor, int index, R result) {
+            this.executor = executor;
+            this.index = index;
+            this.result = result;
+        }
+
+        /**
+         * Waits for the job to run and returns the result holder it wrote into.
+         */
+        public R await() throws InterruptedException, ExecutionException {
+            for (int i = 0; i < SPINS_BEFORE_AWAIT_PARK && state != DONE; i++) {
+                Thread.onSpinWait();
+            }
+            if (state != DONE) {
+                waiter = Thread.currentThread();
+                try {
+                    while (state != DONE) {
+                        LockSupport.park(this);
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                    }
+                } finally {
+                    waiter = null;
+                }
+            }
+            if (failure != null) {
+                // Only the failure path allocates
+                throw new ExecutionException(failure);
+            }
+            return result;
+        }
+
+        public boolean isDone() {
+            return state == DONE;
+        }
+
+        public I input() {
+            return input;
+        }
+
+        /**
+         * The result holder; only meaningful once await() has returned.
+         */
+        public R result() {
+            return result;
+        }
+
+        /**
+         * Hands the slot back to the pool. The caller must not use it afterwards.
+         */
+        public void release() {
+            if (state != DONE) {
+                throw new IllegalStateException("Slot released before its task completed");
+            }
+            input = null;
+            failure = null;
+            state = FREE;
+            executor.recycle(index);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ExecutorService.PriorityExecutor;
+
+/**
+ * A task that tells PriorityLaneExecutor which lane it belongs in.
+ */
+public interface Prioritized {
+    Priority getPriority();
+}
@@ -0,0 +1,10 @@
+package ExecutorService.PriorityExecutor;
+
+/**
+ * The lanes of a PriorityLaneExecutor, in the order they are served: PREMIUM first.
+ */
+public enum Priority {
+    PREMIUM,
+    STANDARD,
+    BULK
+}
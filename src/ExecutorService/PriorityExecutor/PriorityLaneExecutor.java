@@ -0,0 +1,257 @@
+package ExecutorService.PriorityExecutor;
+
+import ExecutorService.ThreadPool.CustomThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-size pool with one FIFO queue (lane) per Priority instead of one shared FIFO queue.
+ *
+ * - enqueue: append to the task's lane, O(1)
+ * - dequeue: take the head of the highest-priority non-empty lane, O(number of lanes)
+ * - aging: a task that has waited longer than its lane's maxWait may jump ahead of higher lanes,
+ *   but on at most one of every AGED_EVERY takes of a worker, so a steady stream of premium work
+ *   can delay bulk work but never starve it, and an aged bulk backlog cannot starve premium work
+ *
+ * Tasks that implement Prioritized go to their lane; anything else goes to defaultPriority's. This
+ * also works through submit(), because newTaskFor keeps the priority of the wrapped task.
+ */
+public class PriorityLaneExecutor extends AbstractExecutorService {
+
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+    // A worker serves an aged task ahead of higher lanes on at most one of this many takes
+    private static final int AGED_EVERY = 4;
+
+    private final Lane[] lanes;
+    private final Priority defaultPriority;
+    // One permit per queued task, plus one per worker once shut down (to wake them up)
+    private final Semaphore queued = new Semaphore(0);
+    private final Thread[] workers;
+    private final CountDownLatch terminated;
+    private volatile int runState = RUNNING;
+
+    /**
+     * @param maxWait    per Priority, in declaration order, how long a task may wait before it
+     *                   jumps the queue; PREMIUM normally has no limit (Long.MAX_VALUE)
+     */
+    public PriorityLaneExecutor(int threads, long[] maxWait, TimeUnit unit, Priority defaultPriority) {
+        this(threads, maxWait, unit, defaultPriority, new CustomThreadFactory("priority"));
+    }
+
+    public PriorityLaneExecutor(int threads, long[] maxWait, TimeUnit unit, Priority defaultPriority,
+                                ThreadFactory threadFactory) {
+        if (defaultPriority == null) {
+            throw new NullPointerException();
+        }
+        if (threads <= 0 || maxWait.length != Priority.values().length) {
+            throw new IllegalArgumentException("Need threads > 0 and one maxWait per Priority");
+        }
+        this.lanes = new Lane[maxWait.length];
+        for (int i = 0; i < lanes.length; i++) {
+            long limit = maxWait[i] == Long.MAX_VALUE ? Long.MAX_VALUE : unit.toNanos(maxWait[i]);
+            lanes[i] = new Lane(limit);
+        }
+        this.defaultPriority = defaultPriority;
+        this.terminated = new CountDownLatch(threads);
+        this.workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = threadFactory.newThread(this::workerLoop);
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (runState != RUNNING) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        Lane lane = lanes[priorityOf(command).ordinal()];
+        QueuedTask queuedTask = new QueuedTask(command, System.nanoTime());
+        lane.tasks.offer(queuedTask);
+        // Lost a race with shutdown(): take it back unless a worker already has it
+        if (runState != RUNNING && lane.tasks.remove(queuedTask)) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        queued.release();
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new PrioritizedFutureTask<>(runnable, value, priorityOf(runnable));
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new PrioritizedFutureTask<>(callable, priorityOf(callable));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Lifecycle
+
+    @Override
+    public void shutdown() {
+        if (runState == RUNNING) {
+            runState = SHUTDOWN;
+            queued.release(workers.length);
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        int previous = runState;
+        runState = STOP;
+        List<Runnable> neverRun = new ArrayList<>();
+        for (Lane lane : lanes) {
+            for (QueuedTask task; (task = lane.tasks.poll()) != null; ) {
+                neverRun.add(task.command);
+            }
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        if (previous == RUNNING) {
+            queued.release(workers.length);
+        }
+        return neverRun;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return runState != RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private Priority priorityOf(Object task) {
+        Priority priority = task instanceof Prioritized ? ((Prioritized) task).getPriority() : null;
+        return priority != null ? priority : defaultPriority;
+    }
+
+    private void workerLoop() {
+        try {
+            int sinceAged = 0;
+            while (runState != STOP) {
+                try {
+                    queued.acquire();
+                } catch (InterruptedException e) {
+                    continue;  // only shutdownNow interrupts; the loop condition handles it
+                }
+                QueuedTask task = null;
+                if (sinceAged + 1 >= AGED_EVERY) {
+                    task = takeAged();
+                }
+                if (task != null) {
+                    sinceAged = 0;
+                } else {
+                    task = takeByPriority();
+                    sinceAged++;
+                }
+                if (task != null) {
+                    try {
+                        task.command.run();
+                    } catch (Throwable e) {
+                        // Even an Error: the pool is fixed-size and never replaces a worker
+                        e.printStackTrace();
+                    }
+                } else if (runState != RUNNING) {
+                    break;
+                }
+            }
+        } finally {
+            terminated.countDown();
+        }
+    }
+
+    // An aged task, starting from the lane that is starved the worst; null if none has aged
+    private QueuedTask takeAged() {
+        long now = System.nanoTime();
+        for (int i = lanes.length - 1; i > 0; i--) {
+            Lane lane = lanes[i];
+            QueuedTask head = lane.tasks.peek();
+            if (head != null && now - head.enqueuedAt > lane.maxWaitNanos) {
+                QueuedTask task = lane.tasks.poll();
+                if (task != null) {
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    private QueuedTask takeByPriority() {
+        for (Lane lane : lanes) {
+            QueuedTask task = lane.tasks.poll();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private static final class Lane {
+        private final Queue<QueuedTask> tasks = new ConcurrentLinkedQueue<>();
+        private final long maxWaitNanos;
+
+        Lane(long maxWaitNanos) {
+            this.maxWaitNanos = maxWaitNanos;
+        }
+    }
+
+    private static final class QueuedTask {
+        private final Runnable command;
+        private final long enqueuedAt;
+
+        QueuedTask(Runnable command, long enqueuedAt) {
+            this.command = command;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private static final class PrioritizedFutureTask<T> extends FutureTask<T> implements Prioritized {
+        private final Priority priority;
+
+        PrioritizedFutureTask(Runnable runnable, T value, Priority priority) {
+            super(runnable, value);
+            this.priority = priority;
+        }
+
+        PrioritizedFutureTask(Callable<T> callable, Priority priority) {
+            super(callable);
+            this.priority = priority;
+        }
+
+        @Override
+        public Priority getPriority() {
+            return priority;
+        }
+    }
+}
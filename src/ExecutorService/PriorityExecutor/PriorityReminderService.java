@@ -0,0 +1,140 @@
+package ExecutorService.PriorityExecutor;
+
+import ExecutorService.FixedThreadPool.Customer;
+import ExecutorService.FixedThreadPool.PolicyReminderTask;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Part 1: FixedThreadPool.PolicyReminderService with a PriorityLaneExecutor. Eve is a premium
+ * customer and is served as soon as the single worker is free, ahead of the bulk campaign.
+ *
+ * Part 2: the pool is saturated with a 5% premium / 15% standard / 80% bulk mix, and the time
+ * each task waited in the queue is reported per class, for a FIFO pool and for the lane pool.
+ *
+ * Part 3: one worker works through a backlog of bulk tasks that is long past its maxWait; a
+ * premium task arrives in the middle of it and must still be served within a few tasks.
+ */
+public class PriorityReminderService {
+
+    public static void main(String[] args) throws InterruptedException {
+        Customer[] customers = {
+                new Customer("Alice", "alice@example.com", Priority.BULK),
+                new Customer("Bob", "bob@example.com", Priority.BULK),
+                new Customer("Charlie", "charlie@example.com", Priority.BULK),
+                new Customer("David", "david@example.com", Priority.STANDARD),
+                new Customer("Eve", "eve@example.com", Priority.PREMIUM)
+        };
+
+        // Bulk work may wait at most 5s, standard 2s, premium has no limit
+        long[] maxWait = {Long.MAX_VALUE, 2000, 5000};
+        ExecutorService executorService = new PriorityLaneExecutor(1, maxWait, TimeUnit.MILLISECONDS, Priority.STANDARD);
+        for (Customer customer : customers) {
+            executorService.submit(new PolicyReminderTask(customer));
+        }
+        executorService.shutdown();
+        executorService.awaitTermination(1, TimeUnit.MINUTES);
+
+        System.out.println("\nQueue wait per class under saturation (4 workers, 2ms tasks, 3000 tasks/s offered)");
+        report("FIFO newFixedThreadPool", saturate(Executors.newFixedThreadPool(4)));
+        report("PriorityLaneExecutor", saturate(new PriorityLaneExecutor(4, new long[]{Long.MAX_VALUE, 200, 1000},
+                TimeUnit.MILLISECONDS, Priority.STANDARD)));
+
+        System.out.println("\nPremium wait behind an aged bulk backlog (1 worker, 1500 x 2ms bulk, bulk maxWait 100ms)");
+        agedBacklog();
+    }
+
+    private static void agedBacklog() throws InterruptedException {
+        PriorityLaneExecutor executor = new PriorityLaneExecutor(1, new long[]{Long.MAX_VALUE, 200, 100},
+                TimeUnit.MILLISECONDS, Priority.STANDARD);
+        AtomicInteger bulkDone = new AtomicInteger();
+        for (int i = 0; i < 1500; i++) {
+            executor.execute(new SimulatedReminder(Priority.BULK, bulkDone::incrementAndGet));
+        }
+        Thread.sleep(1500);
+        long[] premiumWait = new long[1];
+        int[] bulkBefore = new int[1];
+        long submittedAt = System.nanoTime();
+        executor.execute(new SimulatedReminder(Priority.PREMIUM, () -> {
+            premiumWait[0] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedAt);
+            bulkBefore[0] = bulkDone.get();
+        }));
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        System.out.printf("  premium waited %d ms; bulk tasks started before it: %d of 1500, rest after%n",
+                premiumWait[0], bulkBefore[0]);
+    }
+
+    // Offers 1.5x the pool's capacity for 2 seconds and returns queue waits (ms) per class
+    private static long[][] saturate(ExecutorService executor) throws InterruptedException {
+        int tasks = 6000;
+        long[][] waits = new long[Priority.values().length][tasks];
+        AtomicInteger[] counts = {new AtomicInteger(), new AtomicInteger(), new AtomicInteger()};
+
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            int roll = i % 20;
+            Priority priority = roll == 0 ? Priority.PREMIUM : roll < 4 ? Priority.STANDARD : Priority.BULK;
+            int lane = priority.ordinal();
+            long submittedAt = System.nanoTime();
+            executor.execute(new SimulatedReminder(priority, () -> {
+                long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedAt);
+                waits[lane][counts[lane].getAndIncrement()] = waitedMillis;
+            }));
+            // Pace submissions at 3000 per second
+            long nextAt = start + (i + 1) * 1_000_000_000L / 3000;
+            while (System.nanoTime() < nextAt) {
+                Thread.onSpinWait();
+            }
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        long[][] result = new long[waits.length][];
+        for (int c = 0; c < waits.length; c++) {
+            result[c] = Arrays.copyOf(waits[c], counts[c].get());
+            Arrays.sort(result[c]);
+        }
+        return result;
+    }
+
+    private static void report(String name, long[][] waits) {
+        System.out.println(name);
+        for (Priority priority : Priority.values()) {
+            long[] sorted = waits[priority.ordinal()];
+            System.out.printf("  %-9s p50 = %5d ms  p99 = %5d ms  max = %5d ms%n",
+                    priority.name().toLowerCase(),
+                    sorted[sorted.length / 2], sorted[(int) Math.ceil(sorted.length * 0.99) - 1],
+                    sorted[sorted.length - 1]);
+        }
+    }
+
+    private static final class SimulatedReminder implements Runnable, Prioritized {
+        private final Priority priority;
+        private final Runnable onStart;
+
+        SimulatedReminder(Priority priority, Runnable onStart) {
+            this.priority = priority;
+            this.onStart = onStart;
+        }
+
+        @Override
+        public Priority getPriority() {
+            return priority;
+        }
+
+        @Override
+        public void run() {
+            onStart.run();
+            try {
+                Thread.sleep(2);  // simulated send
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
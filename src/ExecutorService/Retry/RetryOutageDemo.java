@@ -0,0 +1,146 @@
+package ExecutorService.Retry;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The mail server is down for the first 1.5 seconds. 100 policy reminders are sent at t=0 on
+ * a 4-thread pool, and a healthy "policy lookup" task (2ms, never fails) arrives every 10ms.
+ *
+ * - sleep-retry: PolicyReminderTask catches the failure and Thread.sleep()s the backoff
+ * - RetryingExecutor: same backoff, but the retry waits on the scheduler, not on a worker
+ *
+ * Reported per variant: worker time spent sending, worker time held asleep in backoff, how long
+ * the healthy lookups waited, and how many reminders got through.
+ */
+public class RetryOutageDemo {
+
+    private static final int REMINDERS = 100;
+    private static final int LOOKUPS = 300;
+    private static final long OUTAGE_MILLIS = 1500;
+
+    private static long outageEndsAt;
+    private static final AtomicLong sendingNanos = new AtomicLong();
+    private static final AtomicLong backoffNanos = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        run("sleep-retry inside the worker", false);
+        run("RetryingExecutor", true);
+    }
+
+    private static void run(String name, boolean nonBlocking) throws Exception {
+        sendingNanos.set(0);
+        backoffNanos.set(0);
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        // Budget large enough for every reminder to use all its retries: this compares only where
+        // the backoff waits. A tight budget (e.g. 0.2, 20) would fail most reminders fast instead.
+        RetryPolicy policy = new RetryPolicy(8, 200, 2000, TimeUnit.MILLISECONDS, 5.0, 5 * REMINDERS);
+        RetryingExecutor retrying = new RetryingExecutor(workers, scheduler, policy);
+
+        long start = System.nanoTime();
+        outageEndsAt = start + TimeUnit.MILLISECONDS.toNanos(OUTAGE_MILLIS);
+        AtomicInteger delivered = new AtomicInteger();
+        CountDownLatch remindersDone = new CountDownLatch(REMINDERS);
+
+        for (int i = 0; i < REMINDERS; i++) {
+            String customer = "Customer-" + i;
+            if (nonBlocking) {
+                CompletableFuture<String> future = retrying.submit(() -> sendReminder(customer));
+                future.whenComplete((result, error) -> {
+                    if (error == null) {
+                        delivered.incrementAndGet();
+                    }
+                    remindersDone.countDown();
+                });
+            } else {
+                workers.execute(() -> {
+                    if (sendWithSleepRetry(policy, customer)) {
+                        delivered.incrementAndGet();
+                    }
+                    remindersDone.countDown();
+                });
+            }
+        }
+
+        long[] lookupWaits = new long[LOOKUPS];
+        CountDownLatch lookupsDone = new CountDownLatch(LOOKUPS);
+        for (int i = 0; i < LOOKUPS; i++) {
+            int index = i;
+            long submittedAt = System.nanoTime();
+            workers.execute(() -> {
+                lookupWaits[index] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedAt);
+                sleep(2);
+                lookupsDone.countDown();
+            });
+            Thread.sleep(10);
+        }
+        remindersDone.await();
+        lookupsDone.await();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(lookupWaits);
+        System.out.println(name);
+        System.out.printf("  worker time sending:           %5d ms%n", TimeUnit.NANOSECONDS.toMillis(sendingNanos.get()));
+        System.out.printf("  worker time asleep in backoff: %5d ms (%.0f%% of the pool's %d ms)%n",
+                TimeUnit.NANOSECONDS.toMillis(backoffNanos.get()),
+                100.0 * backoffNanos.get() / (4.0 * elapsed), 4 * TimeUnit.NANOSECONDS.toMillis(elapsed));
+        System.out.printf("  healthy lookup queue wait:     p50 = %d ms, p99 = %d ms%n",
+                lookupWaits[LOOKUPS / 2], lookupWaits[(int) Math.ceil(LOOKUPS * 0.99) - 1]);
+        System.out.printf("  reminders delivered:           %d/%d%n", delivered.get(), REMINDERS);
+        if (nonBlocking) {
+            System.out.printf("  attempts = %d, retries = %d, refused by budget = %d%n",
+                    retrying.getAttempts(), retrying.getRetries(), retrying.getBudgetExhausted());
+        }
+        System.out.println();
+
+        workers.shutdown();
+        scheduler.shutdown();
+    }
+
+    // The obvious fix: retry in place and sleep between attempts, holding the worker
+    private static boolean sendWithSleepRetry(RetryPolicy policy, String customer) {
+        for (int attempt = 1; attempt <= policy.getMaxAttempts(); attempt++) {
+            try {
+                sendReminder(customer);
+                return true;
+            } catch (IllegalStateException e) {
+                if (attempt == policy.getMaxAttempts()) {
+                    return false;
+                }
+                long backoff = policy.backoffNanos(attempt + 1);
+                backoffNanos.addAndGet(backoff);
+                sleep(TimeUnit.NANOSECONDS.toMillis(backoff));
+            }
+        }
+        return false;
+    }
+
+    private static String sendReminder(String customer) {
+        long start = System.nanoTime();
+        try {
+            sleep(5);
+            if (System.nanoTime() < outageEndsAt) {
+                throw new IllegalStateException("Mail server unavailable");
+            }
+            return "Reminder sent to " + customer;
+        } finally {
+            sendingNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ExecutorService.Retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exponential backoff with full jitter, plus a retry budget.
+ *
+ * Backoff: attempt n waits a random time in [0, min(maxDelay, baseDelay * 2^(n-1))]. The
+ * randomness keeps thousands of reminders that failed together from retrying together.
+ *
+ * Budget: a token bucket. Every first attempt adds {@code retryRatio} tokens (capped), every
+ * retry takes one. During a long outage the bucket runs dry and failures are reported instead
+ * of multiplying the load on the struggling downstream by maxAttempts.
+ */
+public class RetryPolicy {
+    private static final long SCALE = 1000;  // tokens are stored in thousandths
+
+    private final int maxAttempts;
+    private final long baseDelayNanos;
+    private final long maxDelayNanos;
+    private final long tokensPerRequest;
+    private final long maxTokens;
+    private final AtomicLong tokens;
+
+    /**
+     * @param maxAttempts including the first one
+     * @param retryRatio  long-run retries allowed per first attempt, e.g. 0.2
+     * @param burst       retries that may be spent at once when the budget is full
+     */
+    public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit,
+                       double retryRatio, int burst) {
+        if (maxAttempts < 1 || baseDelay <= 0 || maxDelay < baseDelay || retryRatio < 0 || burst < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayNanos = unit.toNanos(baseDelay);
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.tokensPerRequest = (long) (retryRatio * SCALE);
+        this.maxTokens = burst * SCALE;
+        this.tokens = new AtomicLong(maxTokens);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Delay before attempt number {@code attempt} (2 for the first retry).
+     */
+    public long backoffNanos(int attempt) {
+        int shift = Math.min(attempt - 2, 62);
+        long ceiling = baseDelayNanos << shift;
+        if (ceiling <= 0 || ceiling > maxDelayNanos) {
+            ceiling = maxDelayNanos;  // also catches the shift overflowing
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    void onFirstAttempt() {
+        tokens.accumulateAndGet(tokensPerRequest, (current, add) -> Math.min(maxTokens, current + add));
+    }
+
+    boolean tryAcquireRetry() {
+        while (true) {
+            long current = tokens.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package ExecutorService.Retry;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Retries failed tasks without holding a worker thread during the backoff.
+ *
+ * The obvious fix, catching the exception and calling Thread.sleep(backoff) before trying again,
+ * keeps the worker blocked for the whole backoff: during an outage the pool fills up with
+ * sleeping threads and healthy work queues behind them. Here a failed attempt returns its worker
+ * immediately and the next attempt is handed to the scheduler; when the backoff expires the
+ * scheduler thread only puts the attempt back on the worker pool.
+ */
+public class RetryingExecutor {
+
+    private final Executor workers;
+    private final ScheduledExecutorService scheduler;
+    private final RetryPolicy policy;
+    private final Predicate<Throwable> retryable;
+
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+
+    public RetryingExecutor(Executor workers, ScheduledExecutorService scheduler, RetryPolicy policy) {
+        this(workers, scheduler, policy, e -> !(e instanceof InterruptedException));
+    }
+
+    public RetryingExecutor(Executor workers, ScheduledExecutorService scheduler, RetryPolicy policy,
+                            Predicate<Throwable> retryable) {
+        this.workers = workers;
+        this.scheduler = scheduler;
+        this.policy = policy;
+        this.retryable = retryable;
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        policy.onFirstAttempt();
+        workers.execute(() -> attempt(task, 1, result));
+        return result;
+    }
+
+    public long getAttempts() {
+        return attempts.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * How many failures were reported without retrying because the retry budget was empty.
+     */
+    public long getBudgetExhausted() {
+        return budgetExhausted.get();
+    }
+
+    private <T> void attempt(Callable<T> task, int attempt, CompletableFuture<T> result) {
+        if (result.isDone()) {
+            return;  // cancelled by the caller while waiting for this attempt
+        }
+        attempts.incrementAndGet();
+        try {
+            result.complete(task.call());
+        } catch (Throwable e) {
+            if (attempt >= policy.getMaxAttempts() || !retryable.test(e)) {
+                result.completeExceptionally(e);
+            } else if (!policy.tryAcquireRetry()) {
+                budgetExhausted.incrementAndGet();
+                result.completeExceptionally(e);
+            } else {
+                retries.incrementAndGet();
+                scheduleRetry(task, attempt + 1, result, e);
+            }
+        }
+    }
+
+    private <T> void scheduleRetry(Callable<T> task, int attempt, CompletableFuture<T> result, Throwable lastError) {
+        try {
+            scheduler.schedule(() -> {
+                try {
+                    workers.execute(() -> attempt(task, attempt, result));
+                } catch (RejectedExecutionException e) {
+                    result.completeExceptionally(lastError);
+                }
+            }, policy.backoffNanos(attempt), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(lastError);
+        }
+    }
+}
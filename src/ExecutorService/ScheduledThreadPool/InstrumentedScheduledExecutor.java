@@ -0,0 +1,245 @@
+package ExecutorService.ScheduledThreadPool;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps a ScheduledExecutorService and records, for every execution, when it was supposed to start,
+ * when it really started and how long it ran (see TaskTimingStats).
+ *
+ * Executions are grouped by task name and kind (one-shot, fixed rate or fixed delay, with the
+ * period), so a one-shot and a periodic schedule never share an entry:
+ * - the named overloads take the name explicitly; schedules given the same name and kind share
+ *   one entry, which is how a caller groups e.g. a burst of one-shot sends
+ * - the standard ScheduledExecutorService methods use the task's simple class name. One-shots of
+ *   a class share its entry, so high-volume schedule() calls add none; periodic schedules, which
+ *   are few and long-lived, get the class name and a number each, e.g.
+ *   "PolicyReminderRunnableTask #3"
+ *
+ * Intended start times follow ScheduledThreadPoolExecutor's rules:
+ * - schedule:               submit time + delay
+ * - scheduleAtFixedRate:    first start + n * period, independent of how late earlier runs were
+ * - scheduleWithFixedDelay: end of the previous run + delay
+ *
+ * Overhead per execution is two System.nanoTime() calls and a few atomic adds.
+ */
+public class InstrumentedScheduledExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private final ScheduledExecutorService delegate;
+    // Keyed by name and kind
+    private final Map<List<String>, TaskTimingStats> stats = new ConcurrentHashMap<>();
+    // Periodic schedules so far per class name, for naming unnamed ones
+    private final Map<String, AtomicInteger> unnamed = new ConcurrentHashMap<>();
+
+    public InstrumentedScheduledExecutor(ScheduledExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Named scheduling
+
+    public ScheduledFuture<?> schedule(String name, Runnable command, long delay, TimeUnit unit) {
+        TaskTimingStats taskStats = statsFor(name, "one-shot");
+        long intended = System.nanoTime() + unit.toNanos(delay);
+        return delegate.schedule(() -> {
+            long start = recordOneShotStart(taskStats, intended);
+            boolean failed = true;
+            try {
+                command.run();
+                failed = false;
+            } finally {
+                taskStats.recordRun(System.nanoTime() - start, failed);
+            }
+        }, delay, unit);
+    }
+
+    public <V> ScheduledFuture<V> schedule(String name, Callable<V> callable, long delay, TimeUnit unit) {
+        TaskTimingStats taskStats = statsFor(name, "one-shot");
+        long intended = System.nanoTime() + unit.toNanos(delay);
+        return delegate.schedule(() -> {
+            long start = recordOneShotStart(taskStats, intended);
+            boolean failed = true;
+            try {
+                V result = callable.call();
+                failed = false;
+                return result;
+            } finally {
+                taskStats.recordRun(System.nanoTime() - start, failed);
+            }
+        }, delay, unit);
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(String name, Runnable command, long initialDelay, long period, TimeUnit unit) {
+        TaskTimingStats taskStats = statsFor(name, "fixed rate " + period + " " + unit.name().toLowerCase());
+        PeriodicRun run = new PeriodicRun(taskStats, command, System.nanoTime() + unit.toNanos(initialDelay),
+                unit.toNanos(period), true);
+        return delegate.scheduleAtFixedRate(run, initialDelay, period, unit);
+    }
+
+    public ScheduledFuture<?> scheduleWithFixedDelay(String name, Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        TaskTimingStats taskStats = statsFor(name, "fixed delay " + delay + " " + unit.name().toLowerCase());
+        PeriodicRun run = new PeriodicRun(taskStats, command, System.nanoTime() + unit.toNanos(initialDelay),
+                unit.toNanos(delay), false);
+        return delegate.scheduleWithFixedDelay(run, initialDelay, delay, unit);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // ScheduledExecutorService
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(classNameOf(command), command, delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return schedule(classNameOf(callable), callable, delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        return scheduleAtFixedRate(periodicNameOf(command), command, initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        return scheduleWithFixedDelay(periodicNameOf(command), command, initialDelay, delay, unit);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(command);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Reporting
+
+    /**
+     * @return the entries of every schedule with this name, one per kind (empty if none)
+     */
+    public List<TaskTimingStats> getStats(String name) {
+        List<TaskTimingStats> named = new ArrayList<>();
+        for (TaskTimingStats taskStats : getAllStats()) {
+            if (taskStats.getName().equals(name)) {
+                named.add(taskStats);
+            }
+        }
+        return named;
+    }
+
+    public Collection<TaskTimingStats> getAllStats() {
+        List<TaskTimingStats> all = new ArrayList<>(stats.values());
+        all.sort(Comparator.comparing(TaskTimingStats::getName).thenComparing(TaskTimingStats::getKind));
+        return all;
+    }
+
+    public void printReport(PrintStream out) {
+        for (TaskTimingStats taskStats : getAllStats()) {
+            out.println(taskStats.report(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private TaskTimingStats statsFor(String name, String kind) {
+        return stats.computeIfAbsent(List.of(name, kind), key -> new TaskTimingStats(name, kind));
+    }
+
+    private static long recordOneShotStart(TaskTimingStats taskStats, long intended) {
+        long start = System.nanoTime();
+        long delay = Math.max(0, start - intended);
+        taskStats.recordStart(delay, delay, 0);
+        return start;
+    }
+
+    private static String classNameOf(Object task) {
+        String name = task.getClass().getSimpleName();
+        // Lambdas have names like "PolicyReminderService$$Lambda/0x..."
+        int lambda = name.indexOf("$$Lambda");
+        return lambda >= 0 ? name.substring(0, lambda) + " lambda" : name;
+    }
+
+    private String periodicNameOf(Object task) {
+        String name = classNameOf(task);
+        return name + " #" + unnamed.computeIfAbsent(name, n -> new AtomicInteger()).incrementAndGet();
+    }
+
+    /**
+     * The runnable actually handed to the delegate. The executor never runs two executions of the
+     * same periodic task at once, and hands each one to the next through its queue, so plain fields
+     * are enough here.
+     */
+    private static final class PeriodicRun implements Runnable {
+        private final TaskTimingStats taskStats;
+        private final Runnable command;
+        private final long periodNanos;
+        private final boolean fixedRate;
+        private long intendedStart;
+        private long accumulatedDrift;
+
+        PeriodicRun(TaskTimingStats taskStats, Runnable command, long firstStart, long periodNanos, boolean fixedRate) {
+            this.taskStats = taskStats;
+            this.command = command;
+            this.intendedStart = firstStart;
+            this.periodNanos = periodNanos;
+            this.fixedRate = fixedRate;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            long delay = Math.max(0, start - intendedStart);
+            if (fixedRate) {
+                taskStats.recordStart(delay, delay, delay / periodNanos);
+            } else {
+                accumulatedDrift += delay;
+                taskStats.recordStart(delay, accumulatedDrift, 0);
+            }
+            boolean failed = true;
+            try {
+                command.run();
+                failed = false;
+            } finally {
+                long end = System.nanoTime();
+                taskStats.recordRun(end - start, failed);
+                intendedStart = fixedRate ? intendedStart + periodNanos : end + periodNanos;
+            }
+        }
+    }
+}
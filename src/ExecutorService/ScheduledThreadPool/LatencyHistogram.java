@@ -0,0 +1,124 @@
+package ExecutorService.ScheduledThreadPool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear histogram of nanosecond values (the HdrHistogram layout, much reduced).
+ *
+ * Values below 16 get a bucket each; above that every power of two is split into 16 buckets, so a
+ * reported percentile is at most ~6% above the true value. 960 buckets cover the whole long range.
+ * record() is two atomic adds and a max update, safe from any number of threads, and never
+ * allocates.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS * (64 - SUB_BUCKET_BITS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        total.addAndGet(value);
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+            // retry
+        }
+    }
+
+    /**
+     * Adds every value recorded in {@code other}, e.g. to combine per-thread histograms.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = other.counts.get(i);
+            if (n != 0) {
+                counts.addAndGet(i, n);
+            }
+        }
+        count.addAndGet(other.count.get());
+        total.addAndGet(other.total.get());
+        max.accumulateAndGet(other.max.get(), Math::max);
+    }
+
+    public long count() {
+        return count.get();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    public long meanNanos() {
+        long n = count.get();
+        return n == 0 ? 0 : total.get() / n;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (e.g. 0.99), capped at the maximum.
+     */
+    public long percentileNanos(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * One line, e.g. "n=120 mean=3.1 p50=2.0 p90=6.5 p99=12.0 max=14.2 ms".
+     */
+    public String summary(TimeUnit unit) {
+        return String.format("n=%d mean=%s p50=%s p90=%s p99=%s max=%s %s", count(),
+                format(meanNanos(), unit), format(percentileNanos(0.50), unit), format(percentileNanos(0.90), unit),
+                format(percentileNanos(0.99), unit), format(maxNanos(), unit), unitName(unit));
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        // (value >>> exponent) keeps the top 5 bits, i.e. a number in [16, 31]
+        return SUB_BUCKETS * exponent + (int) (value >>> exponent);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS - 1;
+        long subBucket = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        return ((subBucket + 1) << exponent) - 1;
+    }
+
+    private static String format(long nanos, TimeUnit unit) {
+        return String.format("%.1f", (double) nanos / unit.toNanos(1));
+    }
+
+    private static String unitName(TimeUnit unit) {
+        switch (unit) {
+            case NANOSECONDS: return "ns";
+            case MICROSECONDS: return "us";
+            case MILLISECONDS: return "ms";
+            case SECONDS: return "s";
+            default: return unit.name().toLowerCase();
+        }
+    }
+}
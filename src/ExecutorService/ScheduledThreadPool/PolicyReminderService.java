@@ -3,7 +3,6 @@ package ExecutorService.ScheduledThreadPool;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
@@ -18,7 +17,8 @@ public class PolicyReminderService {
                 new Customer("Eve", "eve@example.com")
         };
 
-        ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(3);
+        // Records intended vs actual start of every run; the report is printed at shutdown
+        InstrumentedScheduledExecutor scheduledExecutorService = new InstrumentedScheduledExecutor(Executors.newScheduledThreadPool(3));
 
         // List to store Future objects for Callable tasks
         List<ScheduledFuture<String>> futures = new ArrayList<>();
@@ -76,6 +76,7 @@ public class PolicyReminderService {
         scheduledExecutorService.schedule(() -> {
             scheduledExecutorService.shutdown();
             System.out.println("ScheduledExecutorService shutdown");
+            scheduledExecutorService.printReport(System.out);
         }, 60, TimeUnit.SECONDS);
     }
 }
\ No newline at end of file
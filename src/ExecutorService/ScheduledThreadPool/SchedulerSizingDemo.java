@@ -0,0 +1,52 @@
+package ExecutorService.ScheduledThreadPool;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PolicyReminderService's periodic load, 5x faster, on pools of 1, 2 and 3 threads:
+ * - 5 customers, each reminded at a fixed rate of 2s (service: 10s); a send takes 450ms
+ * - one audit task with a fixed delay of 3s (service: 15s) that takes 100ms
+ *
+ * That is 5 * 0.45 / 2 = 1.125 busy threads on average, so one thread can never keep up, and
+ * because all five reminders come due at the same instant the start delay of the last ones
+ * depends directly on the pool size. The per-task report shows how late runs start, whether the
+ * schedule drifts and whether periods collapse.
+ */
+public class SchedulerSizingDemo {
+
+    private static final long RUN_SECONDS = 12;
+
+    public static void main(String[] args) throws InterruptedException {
+        Customer[] customers = {
+                new Customer("Alice", "alice@example.com"),
+                new Customer("Bob", "bob@example.com"),
+                new Customer("Charlie", "charlie@example.com"),
+                new Customer("David", "david@example.com"),
+                new Customer("Eve", "eve@example.com")
+        };
+        for (int threads : new int[] {1, 2, 3}) {
+            InstrumentedScheduledExecutor scheduler = new InstrumentedScheduledExecutor(Executors.newScheduledThreadPool(threads));
+            for (Customer customer : customers) {
+                scheduler.scheduleAtFixedRate("reminder " + customer.getName(), () -> sleep(450), 0, 2, TimeUnit.SECONDS);
+            }
+            scheduler.scheduleWithFixedDelay("audit", () -> sleep(100), 0, 3, TimeUnit.SECONDS);
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(RUN_SECONDS));
+            scheduler.shutdown();  // cancels the periodic tasks, lets running sends finish
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+
+            System.out.println("=== newScheduledThreadPool(" + threads + ") ===");
+            scheduler.printReport(System.out);
+            System.out.println();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);  // simulated mail send
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
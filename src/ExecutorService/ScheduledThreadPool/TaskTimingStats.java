@@ -0,0 +1,101 @@
+package ExecutorService.ScheduledThreadPool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timing of every execution of one named scheduled task, as recorded by
+ * InstrumentedScheduledExecutor.
+ *
+ * - start delay:  actual start minus intended start (how late the pool picked the run up)
+ * - run time:     how long the task itself took
+ * - drift:        how far the whole schedule has shifted. For fixed-rate tasks this is the current
+ *                 lateness, since the JDK keeps them on their original grid and catches up. For
+ *                 fixed-delay tasks every late start pushes all later runs, so start delays add up.
+ * - coalesced:    fixed-rate runs that started when the next period was already due; the JDK does
+ *                 not run those in parallel, it runs them back to back, so periods collapse
+ */
+public class TaskTimingStats {
+
+    private final String name;
+    private final String kind;
+    private final LatencyHistogram startDelay = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong maxPeriodsBehind = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong maxDrift = new AtomicLong();
+    private volatile long lastDrift;
+
+    TaskTimingStats(String name, String kind) {
+        this.name = name;
+        this.kind = kind;
+    }
+
+    void recordStart(long delayNanos, long driftNanos, long periodsBehind) {
+        startDelay.record(delayNanos);
+        lastDrift = driftNanos;
+        maxDrift.accumulateAndGet(driftNanos, Math::max);
+        if (periodsBehind > 0) {
+            coalesced.incrementAndGet();
+            maxPeriodsBehind.accumulateAndGet(periodsBehind, Math::max);
+        }
+    }
+
+    void recordRun(long runNanos, boolean failed) {
+        runTime.record(runNanos);
+        if (failed) {
+            failures.incrementAndGet();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * "one-shot", or e.g. "fixed rate 10 seconds", "fixed delay 15 seconds".
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    public LatencyHistogram getStartDelay() {
+        return startDelay;
+    }
+
+    public LatencyHistogram getRunTime() {
+        return runTime;
+    }
+
+    public long getCoalescedRuns() {
+        return coalesced.get();
+    }
+
+    public long getMaxPeriodsBehind() {
+        return maxPeriodsBehind.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public long getDriftNanos() {
+        return lastDrift;
+    }
+
+    public long getMaxDriftNanos() {
+        return maxDrift.get();
+    }
+
+    public String report(TimeUnit unit) {
+        StringBuilder report = new StringBuilder();
+        report.append(name).append(" (").append(kind).append(")\n");
+        report.append("  start delay: ").append(startDelay.summary(unit)).append('\n');
+        report.append("  run time:    ").append(runTime.summary(unit)).append('\n');
+        report.append(String.format("  drift now = %d ms, max = %d ms; coalesced runs = %d (max %d periods behind); failures = %d",
+                TimeUnit.NANOSECONDS.toMillis(lastDrift), TimeUnit.NANOSECONDS.toMillis(maxDrift.get()),
+                coalesced.get(), maxPeriodsBehind.get(), failures.get()));
+        return report.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package ExecutorService.SingleFlight;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deduplicates concurrent submissions of the same key (Go's "singleflight").
+ *
+ * The first submit(key, task) for a key runs the task; every other submit for that key while it
+ * is in flight gets the same result instead of running its own copy. A successful result is then
+ * served from a short cache for {@code resultTtl}; failures are not cached, so the next submit
+ * tries again.
+ *
+ * There is no global lock or counter: joining or starting a flight is a get plus
+ * putIfAbsent/replace on a ConcurrentHashMap, which only ever touches the bin of that key. A
+ * flight removes its own entry when it fails, or when its cached result expires (a timer on the
+ * JDK's shared delay thread), so nothing ever scans the map.
+ */
+public class SingleFlightExecutor<K, V> {
+
+    private final ExecutorService executor;
+    private final long resultTtlNanos;
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final AtomicLong executions = new AtomicLong();
+
+    public SingleFlightExecutor(ExecutorService executor, long resultTtl, TimeUnit unit) {
+        this.executor = executor;
+        this.resultTtlNanos = unit.toNanos(resultTtl);
+    }
+
+    /**
+     * Returns a future for {@code task}'s result, shared with every concurrent caller using the
+     * same key. Cancelling the returned future only detaches this caller; the shared run goes on.
+     */
+    public CompletableFuture<V> submit(K key, Callable<V> task) {
+        while (true) {
+            Flight<V> current = flights.get(key);
+            if (current != null && current.isUsable()) {
+                return current.result.copy();
+            }
+            Flight<V> flight = new Flight<>();
+            boolean won = current == null
+                    ? flights.putIfAbsent(key, flight) == null
+                    : flights.replace(key, current, flight);
+            if (won) {
+                start(key, flight, task);
+                return flight.result.copy();
+            }
+            // Another thread started a flight for this key first: loop and join it
+        }
+    }
+
+    /**
+     * How many tasks actually ran, as opposed to being served from a shared flight or the cache.
+     */
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    private void start(K key, Flight<V> flight, Callable<V> task) {
+        executions.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                try {
+                    V value = task.call();
+                    flight.expiresAt = System.nanoTime() + resultTtlNanos;
+                    flight.result.complete(value);
+                    evictWhenExpired(key, flight);
+                } catch (Throwable e) {
+                    fail(key, flight, e);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rejected: callers already waiting on this flight must not hang
+            fail(key, flight, e);
+            throw e;
+        }
+    }
+
+    private void fail(K key, Flight<V> flight, Throwable error) {
+        flights.remove(key, flight);
+        flight.result.completeExceptionally(error);
+    }
+
+    private void evictWhenExpired(K key, Flight<V> flight) {
+        if (resultTtlNanos <= 0) {
+            flights.remove(key, flight);
+        } else {
+            CompletableFuture.delayedExecutor(resultTtlNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> flights.remove(key, flight));
+        }
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        // Set just before a successful completion
+        private volatile long expiresAt;
+
+        boolean isUsable() {
+            if (!result.isDone()) {
+                return true;  // still in flight: join it
+            }
+            return !result.isCompletedExceptionally() && System.nanoTime() - expiresAt < 0;
+        }
+    }
+}
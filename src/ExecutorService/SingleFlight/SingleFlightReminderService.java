@@ -0,0 +1,84 @@
+package ExecutorService.SingleFlight;
+
+import ExecutorService.SubmitvsExecute.Submit.Callable.Customer;
+import ExecutorService.SubmitvsExecute.Submit.Callable.PolicyReminderTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 4 upstream triggers fire at the same moment for the same 5 customers.
+// Plain submit sends 20 reminders; single-flight sends 5 and everyone gets the same result.
+public class SingleFlightReminderService {
+
+    private static final int TRIGGERS = 4;
+
+    public static void main(String[] args) throws Exception {
+        Customer[] customers = {
+                new Customer("Alice", "alice@example.com"),
+                new Customer("Bob", "bob@example.com"),
+                new Customer("Charlie", "charlie@example.com"),
+                new Customer("David", "david@example.com"),
+                new Customer("Eve", "eve@example.com")
+        };
+
+        ExecutorService executorService = Executors.newFixedThreadPool(20);
+
+        AtomicInteger plainSends = new AtomicInteger();
+        runTriggers(customers, customer -> CompletableFuture.supplyAsync(() -> {
+            plainSends.incrementAndGet();
+            return new PolicyReminderTask(customer).call();
+        }, executorService));
+
+        SingleFlightExecutor<String, String> singleFlight =
+                new SingleFlightExecutor<>(executorService, 30, TimeUnit.SECONDS);
+        AtomicInteger dedupedSends = new AtomicInteger();
+        runTriggers(customers, customer -> singleFlight.submit(customer.getEmail(), () -> {
+            dedupedSends.incrementAndGet();
+            return new PolicyReminderTask(customer).call();
+        }));
+
+        System.out.println("Downstream sends without single-flight: " + plainSends.get());
+        System.out.println("Downstream sends with single-flight:    " + dedupedSends.get()
+                + " (" + TRIGGERS * customers.length + " submissions)");
+
+        executorService.shutdown();
+    }
+
+    private interface Trigger {
+        CompletableFuture<String> fire(Customer customer);
+    }
+
+    private static void runTriggers(Customer[] customers, Trigger trigger) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < TRIGGERS; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (Customer customer : customers) {
+                    CompletableFuture<String> result = trigger.fire(customer);
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get();
+    }
+}
@@ -1,12 +1,21 @@
 package ExecutorService.SingleThreadPool;
 
+import ExecutorService.PriorityExecutor.Priority;
+
 public class Customer {
     private String name;
     private String email;
+    // Used by PriorityLaneExecutor
+    private Priority priority;
 
     public Customer(String name, String email) {
+        this(name, email, Priority.STANDARD);
+    }
+
+    public Customer(String name, String email, Priority priority) {
         this.name = name;
         this.email = email;
+        this.priority = priority;
     }
 
     public String getName() {
@@ -16,4 +25,8 @@ public class Customer {
     public String getEmail() {
         return email;
     }
+
+    public Priority getPriority() {
+        return priority;
+    }
 }
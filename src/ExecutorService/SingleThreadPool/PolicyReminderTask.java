@@ -1,6 +1,9 @@
 package ExecutorService.SingleThreadPool;
 
-public class PolicyReminderTask implements Runnable {
+import ExecutorService.PriorityExecutor.Priority;
+import ExecutorService.PriorityExecutor.Prioritized;
+
+public class PolicyReminderTask implements Runnable, Prioritized {
     private Customer customer;
 
     public PolicyReminderTask(Customer customer) {
@@ -12,6 +15,11 @@ public class PolicyReminderTask implements Runnable {
         sendReminder(customer);
     }
 
+    @Override
+    public Priority getPriority() {
+        return customer.getPriority();
+    }
+
     private void sendReminder(Customer customer) {
         System.out.println("Sending policy reminder to " + customer.getName() + " at " + customer.getEmail());
         // Simulate sending email
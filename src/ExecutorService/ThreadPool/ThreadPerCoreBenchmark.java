@@ -0,0 +1,92 @@
+package ExecutorService.ThreadPool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput of short CPU-bound tasks: newFixedThreadPool (one shared LinkedBlockingQueue)
+ * versus ThreadPerCoreExecutor with and without stealing.
+ *
+ * Each task does a few hundred nanoseconds of arithmetic seeded by its key, so queue
+ * overhead dominates, which is exactly where the shared queue hurts.
+ *
+ * Usage: java ExecutorService.ThreadPool.ThreadPerCoreBenchmark [tasks] [submitterThreads]
+ */
+public class ThreadPerCoreBenchmark {
+
+    private static final int KEYS = 1024;
+    private static volatile long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int submitters = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%,d tasks, %d submitters, %d cores%n", tasks, submitters, cores);
+
+        for (int round = 0; round < 2; round++) {  // first round is JIT warm-up
+            System.out.println(round == 0 ? "\nwarm-up" : "\nmeasured");
+            ExecutorService fixed = Executors.newFixedThreadPool(cores, new CustomThreadFactory("fixed"));
+            report("newFixedThreadPool", run(fixed, null, tasks, submitters), tasks);
+
+            ThreadPerCoreExecutor perCore = new ThreadPerCoreExecutor(false);
+            report("ThreadPerCore (keyed)", run(perCore, perCore, tasks, submitters), tasks);
+
+            ThreadPerCoreExecutor stealing = new ThreadPerCoreExecutor(true);
+            report("ThreadPerCore (keyed + stealing)", run(stealing, stealing, tasks, submitters), tasks);
+        }
+    }
+
+    private static long run(ExecutorService executor, ThreadPerCoreExecutor keyed, int tasks, int submitters)
+            throws InterruptedException {
+        // LongAdder rather than a CountDownLatch so completion tracking is not itself a hot spot
+        LongAdder done = new LongAdder();
+        int perSubmitter = tasks / submitters;
+
+        long start = System.nanoTime();
+        Thread[] threads = new Thread[submitters];
+        for (int s = 0; s < submitters; s++) {
+            int offset = s * perSubmitter;
+            int count = s == submitters - 1 ? tasks - offset : perSubmitter;
+            threads[s] = new Thread(() -> {
+                for (int i = 0; i < count; i++) {
+                    Integer key = (offset + i) % KEYS;
+                    Runnable task = () -> {
+                        sink = cpuWork(key);
+                        done.increment();
+                    };
+                    if (keyed != null) {
+                        keyed.execute(key, task);
+                    } else {
+                        executor.execute(task);
+                    }
+                }
+            });
+            threads[s].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        while (done.sum() < tasks) {
+            Thread.sleep(1);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        return elapsed;
+    }
+
+    private static long cpuWork(int seed) {
+        long x = seed;
+        for (int i = 0; i < 100; i++) {
+            x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x;
+    }
+
+    private static void report(String name, long nanos, int tasks) {
+        System.out.printf("  %-34s %,12.0f tasks/s%n", name, tasks / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,257 @@
+package ExecutorService.ThreadPool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One worker per available processor, each with its own lock-free run queue.
+ *
+ * Executors.newFixedThreadPool puts every task into one shared LinkedBlockingQueue, so all
+ * submitters and all workers fight over the same two locks. Here:
+ * - execute(key, task) always sends tasks with the same key to the same worker, so the data
+ *   those tasks touch stays in that core's cache (and they run in submission order)
+ * - execute(task) from a worker thread stays on that worker, from outside it picks a random one
+ * - with stealing enabled, an idle worker takes tasks from a busy worker's queue before it parks
+ *   (this gives up the per-key ordering guarantee in exchange for better balance)
+ */
+public class ThreadPerCoreExecutor extends AbstractExecutorService {
+
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+
+    // How many empty polls a worker tries before it parks
+    private static final int SPINS_BEFORE_PARK = 64;
+
+    private final Worker[] workers;
+    private final boolean stealing;
+    private final CountDownLatch terminated;
+    private volatile int runState = RUNNING;
+
+    public ThreadPerCoreExecutor(boolean stealing) {
+        this(new CustomThreadFactory("per-core"), stealing);
+    }
+
+    public ThreadPerCoreExecutor(ThreadFactory threadFactory, boolean stealing) {
+        this(Runtime.getRuntime().availableProcessors(), threadFactory, stealing);
+    }
+
+    public ThreadPerCoreExecutor(int workerCount, ThreadFactory threadFactory, boolean stealing) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("workerCount must be positive");
+        }
+        this.stealing = stealing;
+        this.workers = new Worker[workerCount];
+        this.terminated = new CountDownLatch(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i);
+            workers[i].thread = threadFactory.newThread(workers[i]);
+        }
+        for (Worker worker : workers) {
+            worker.thread.start();
+        }
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    /**
+     * Runs the task on the worker that owns {@code key}. Tasks with equal keys always land on the
+     * same worker's queue.
+     */
+    public void execute(Object key, Runnable command) {
+        enqueue(workers[indexFor(key.hashCode())], command);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Worker current = currentWorker();
+        Worker target = current != null
+                ? current
+                : workers[ThreadLocalRandom.current().nextInt(workers.length)];
+        enqueue(target, command);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Lifecycle
+
+    @Override
+    public void shutdown() {
+        if (runState == RUNNING) {
+            runState = SHUTDOWN;
+        }
+        wakeAll();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        runState = STOP;
+        List<Runnable> neverRun = new ArrayList<>();
+        for (Worker worker : workers) {
+            worker.thread.interrupt();
+            for (Runnable task; (task = worker.queue.poll()) != null; ) {
+                neverRun.add(task);
+            }
+        }
+        wakeAll();
+        return neverRun;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return runState != RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private int indexFor(int hash) {
+        // Spread the bits so keys with similar low bits still use every worker
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash * 0x9E3779B9, workers.length);
+    }
+
+    private Worker currentWorker() {
+        Thread thread = Thread.currentThread();
+        for (Worker worker : workers) {
+            if (worker.thread == thread) {
+                return worker;
+            }
+        }
+        return null;
+    }
+
+    private void enqueue(Worker target, Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (runState != RUNNING) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        target.queue.offer(command);
+        // Lost a race with shutdown(): the worker may already have drained and exited
+        if (runState != RUNNING && target.queue.remove(command)) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        if (target.parked) {
+            LockSupport.unpark(target.thread);
+        } else if (stealing) {
+            // The owner is busy; let an idle worker come and steal it
+            wakeOneIdle(target.index);
+        }
+    }
+
+    private void wakeOneIdle(int busyIndex) {
+        for (int i = 1; i < workers.length; i++) {
+            Worker worker = workers[(busyIndex + i) % workers.length];
+            if (worker.parked) {
+                LockSupport.unpark(worker.thread);
+                return;
+            }
+        }
+    }
+
+    private void wakeAll() {
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+        // Michael-Scott lock-free queue: many submitters, the owner and stealers can all use it
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private Thread thread;
+        // Written by the worker before parking, read by submitters to decide whether to unpark
+        private volatile boolean parked;
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            try {
+                int idleSpins = 0;
+                while (runState != STOP) {
+                    Runnable task = nextTask();
+                    if (task != null) {
+                        idleSpins = 0;
+                        runTask(task);
+                    } else if (runState == SHUTDOWN) {
+                        break;  // shutting down and nothing left in our queue
+                    } else if (++idleSpins < SPINS_BEFORE_PARK) {
+                        Thread.onSpinWait();
+                    } else {
+                        idleSpins = 0;
+                        parkUntilWork();
+                    }
+                }
+            } finally {
+                terminated.countDown();
+            }
+        }
+
+        private Runnable nextTask() {
+            Runnable task = queue.poll();
+            if (task == null && stealing) {
+                task = steal();
+            }
+            return task;
+        }
+
+        private Runnable steal() {
+            int start = ThreadLocalRandom.current().nextInt(workers.length);
+            for (int i = 0; i < workers.length; i++) {
+                Worker victim = workers[(start + i) % workers.length];
+                if (victim != this) {
+                    Runnable task = victim.queue.poll();
+                    if (task != null) {
+                        return task;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void parkUntilWork() {
+            parked = true;
+            // Re-check after publishing 'parked': a submitter that offered before seeing it will
+            // be seen here, one that offers after will see parked == true and unpark us
+            if (queue.isEmpty() && runState == RUNNING) {
+                LockSupport.park(this);
+            }
+            parked = false;
+            Thread.interrupted();  // only shutdownNow interrupts, and it also sets STOP
+        }
+
+        private void runTask(Runnable task) {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                // Keep the worker alive, even on an Error: it is its core's only thread, and a dead
+                // worker would strand every key hashed to it
+                e.printStackTrace();
+            }
+        }
+    }
+}
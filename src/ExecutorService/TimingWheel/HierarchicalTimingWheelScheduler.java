@@ -0,0 +1,532 @@
+package ExecutorService.TimingWheel;
+
+import ExecutorService.ThreadPool.CustomThreadFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A ScheduledExecutorService backed by a hierarchical hashed timing wheel instead of the
+ * binary heap (DelayedWorkQueue) used by ScheduledThreadPoolExecutor.
+ *
+ * - schedule() only appends to a lock-free queue, so it is O(1) and takes no shared lock
+ * - cancel() marks the task and the ticker unlinks it from its bucket, also O(1)
+ * - one ticker thread advances the wheels once per tick, cascades far-away buckets down
+ *   one level and hands expired tasks to a separate worker pool
+ *
+ * Precision is one tick: a task never runs early but may run up to one tick late.
+ */
+public final class HierarchicalTimingWheelScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;  // 256 buckets per level
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;                    // 256^4 ticks = ~49 days with a 1ms tick
+    private static final long MAX_SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+
+    private static final VarHandle RUN_STATE;
+
+    static {
+        try {
+            RUN_STATE = MethodHandles.lookup().findVarHandle(HierarchicalTimingWheelScheduler.class, "runState",
+                    int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final ExecutorService workers;
+    private final Thread ticker;
+    private final CountDownLatch tickerDone = new CountDownLatch(1);
+
+    // Hand-off queues between submitting threads and the ticker thread
+    private final Queue<TimerTask<?>> pendingAdds = new ConcurrentLinkedQueue<>();
+    private final Queue<TimerTask<?>> pendingCancels = new ConcurrentLinkedQueue<>();
+
+    // Everything below is owned by the ticker thread only, so it needs no locking
+    private final Bucket[][] wheels = new Bucket[LEVELS][WHEEL_SIZE];
+    private long currentTick;
+    private long size;
+    // Ticks fully processed; written by the ticker only, read by awaitHandOffs()
+    private volatile long ticksDone;
+
+    // Only ever moves forward; shutdown() must not turn a STOP back into SHUTDOWN
+    private volatile int runState = RUNNING;
+
+    public HierarchicalTimingWheelScheduler(int workerThreads) {
+        this(1, TimeUnit.MILLISECONDS,
+                Executors.newFixedThreadPool(workerThreads, new CustomThreadFactory("timing-wheel-worker")));
+    }
+
+    /**
+     * @param tickDuration length of one tick of the lowest wheel
+     * @param workers      pool that runs expired tasks; it is shut down together with this scheduler
+     */
+    public HierarchicalTimingWheelScheduler(long tickDuration, TimeUnit unit, ExecutorService workers) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be positive");
+        }
+        if (workers == null) {
+            throw new NullPointerException();
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.workers = workers;
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                wheels[level][slot] = new Bucket();
+            }
+        }
+        this.startNanos = System.nanoTime();
+        this.ticker = new Thread(this::runTicker, "timing-wheel-ticker");
+        this.ticker.start();
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // ScheduledExecutorService
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        return enqueue(new TimerTask<Void>(command, null, triggerTime(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+        return enqueue(new TimerTask<>(callable, triggerTime(delay, unit), 0));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException();
+        }
+        return enqueue(new TimerTask<Void>(command, null, triggerTime(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        if (delay <= 0) {
+            throw new IllegalArgumentException();
+        }
+        // A negative period marks fixed-delay, the same trick ScheduledThreadPoolExecutor uses
+        return enqueue(new TimerTask<Void>(command, null, triggerTime(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return schedule(task, 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public <T> Future<T> submit(Runnable task, T result) {
+        return schedule(Executors.callable(task, result), 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return schedule(task, 0, TimeUnit.NANOSECONDS);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Lifecycle
+
+    /**
+     * Stops accepting new tasks. Delayed one-shot tasks still fire, periodic tasks are cancelled
+     * (the same defaults as ScheduledThreadPoolExecutor).
+     */
+    @Override
+    public void shutdown() {
+        RUN_STATE.compareAndSet(this, RUNNING, SHUTDOWN);
+        LockSupport.unpark(ticker);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        runState = STOP;
+        LockSupport.unpark(ticker);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                ticker.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // The ticker is gone, so its buckets are safe to read from here
+        List<Runnable> neverRun = new ArrayList<>();
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                for (TimerTask<?> task = bucket.detachAll(); task != null; ) {
+                    TimerTask<?> next = task.next;
+                    task.unlinked();
+                    neverRun.add(task);
+                    task = next;
+                }
+            }
+        }
+        size = 0;
+        for (TimerTask<?> task; (task = pendingAdds.poll()) != null; ) {
+            if (!task.isCancelled()) {
+                neverRun.add(task);
+            }
+        }
+        neverRun.addAll(workers.shutdownNow());
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return neverRun;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return runState != RUNNING;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return tickerDone.getCount() == 0 && workers.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (!tickerDone.await(timeout, unit)) {
+            return false;
+        }
+        return workers.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Waits until the ticker has taken every schedule() and cancel() made before this call from
+     * the hand-off queues into (or out of) the wheels, or until it has stopped. Lets a benchmark
+     * time the whole insert and removal, not just the enqueue.
+     */
+    void awaitHandOffs() throws InterruptedException {
+        while (!pendingAdds.isEmpty() || !pendingCancels.isEmpty()) {
+            if (tickerDone.getCount() == 0) {
+                return;
+            }
+            Thread.sleep(1);
+        }
+        // The queues are empty, but the ticker may still be placing what it polled last
+        long seen = ticksDone;
+        while (ticksDone == seen && tickerDone.getCount() != 0) {
+            Thread.sleep(1);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Submission side
+
+    private long triggerTime(long delay, TimeUnit unit) {
+        long nanos = unit.toNanos(Math.max(delay, 0));
+        // Cap huge delays so deadline arithmetic can never overflow
+        return System.nanoTime() + Math.min(nanos, Long.MAX_VALUE >> 1);
+    }
+
+    private <V> TimerTask<V> enqueue(TimerTask<V> task) {
+        if (runState != RUNNING) {
+            throw new RejectedExecutionException("Scheduler has been shut down");
+        }
+        pendingAdds.add(task);
+        // Lost a race with shutdown(): take the task back if the ticker has not seen it yet
+        if (runState != RUNNING && pendingAdds.remove(task)) {
+            throw new RejectedExecutionException("Scheduler has been shut down");
+        }
+        return task;
+    }
+
+    // Called by a worker after a periodic run completed normally
+    private void reArm(TimerTask<?> task) {
+        if (runState != RUNNING) {
+            task.cancel(false);
+            return;
+        }
+        pendingAdds.add(task);
+        if (runState != RUNNING && pendingAdds.remove(task)) {
+            task.cancel(false);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Ticker thread
+
+    private void runTicker() {
+        boolean periodicCancelled = false;
+        try {
+            while (runState != STOP) {
+                long elapsedTicks = (System.nanoTime() - startNanos) / tickNanos;
+                while (currentTick < elapsedTicks && runState != STOP) {
+                    advanceTo(currentTick + 1);
+                }
+                if (runState == SHUTDOWN) {
+                    drainCancels();
+                    // Periodic tasks still on their way in are cancelled here, not placed
+                    drainAdds();
+                    if (!periodicCancelled) {
+                        cancelPeriodicTasks();
+                        periodicCancelled = true;
+                    }
+                    if (size == 0 && pendingAdds.isEmpty()) {
+                        workers.shutdown();
+                        break;
+                    }
+                }
+                long nextTickAt = startNanos + (currentTick + 1) * tickNanos;
+                LockSupport.parkNanos(this, nextTickAt - System.nanoTime());
+            }
+        } finally {
+            tickerDone.countDown();
+        }
+    }
+
+    private void advanceTo(long tick) {
+        currentTick = tick;
+        // Every time a lower wheel wraps around, pull the next bucket of the level above down
+        for (int level = 1; level < LEVELS; level++) {
+            int shift = level * WHEEL_BITS;
+            if ((tick & ((1L << shift) - 1)) != 0) {
+                break;
+            }
+            Bucket bucket = wheels[level][(int) ((tick >>> shift) & WHEEL_MASK)];
+            for (TimerTask<?> task = bucket.detachAll(); task != null; ) {
+                TimerTask<?> next = task.next;
+                task.unlinked();
+                size--;
+                place(task);
+                task = next;
+            }
+        }
+        drainCancels();
+        drainAdds();
+
+        Bucket due = wheels[0][(int) (tick & WHEEL_MASK)];
+        for (TimerTask<?> task = due.detachAll(); task != null; ) {
+            TimerTask<?> next = task.next;
+            task.unlinked();
+            size--;
+            fire(task);
+            task = next;
+        }
+        ticksDone++;
+    }
+
+    private void drainAdds() {
+        for (TimerTask<?> task; (task = pendingAdds.poll()) != null; ) {
+            if (task.isPeriodic() && runState != RUNNING) {
+                task.cancel(false);
+            } else if (!task.isCancelled()) {
+                place(task);
+            }
+        }
+    }
+
+    private void drainCancels() {
+        for (TimerTask<?> task; (task = pendingCancels.poll()) != null; ) {
+            if (task.bucket != null) {
+                task.bucket.unlink(task);
+                size--;
+            }
+        }
+    }
+
+    private void place(TimerTask<?> task) {
+        long deadlineTick = Math.max(0, ceilDiv(task.deadline - startNanos, tickNanos));
+        long delta = deadlineTick - currentTick;
+        if (delta <= 0) {
+            fire(task);
+            return;
+        }
+        // Deadlines beyond the top wheel are parked in its farthest bucket and re-placed on cascade
+        long slotTick = delta < MAX_SPAN ? deadlineTick : currentTick + MAX_SPAN - 1;
+        int level = (63 - Long.numberOfLeadingZeros(slotTick - currentTick)) / WHEEL_BITS;
+        int slot = (int) ((slotTick >>> (level * WHEEL_BITS)) & WHEEL_MASK);
+        wheels[level][slot].add(task);
+        size++;
+    }
+
+    private void fire(TimerTask<?> task) {
+        if (task.isPeriodic() && runState != RUNNING) {
+            task.cancel(false);  // shutdown() cancels periodic tasks, even ones due this very tick
+            return;
+        }
+        try {
+            workers.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.cancel(false);
+        }
+    }
+
+    private void cancelPeriodicTasks() {
+        for (Bucket[] wheel : wheels) {
+            for (Bucket bucket : wheel) {
+                for (TimerTask<?> task = bucket.head; task != null; ) {
+                    TimerTask<?> next = task.next;
+                    if (task.isPeriodic()) {
+                        bucket.unlink(task);
+                        size--;
+                        task.cancel(false);
+                    }
+                    task = next;
+                }
+            }
+        }
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return -Math.floorDiv(-x, y);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Doubly linked list of tasks that expire in the same tick range.
+     * Links live inside the tasks themselves, so add/unlink allocate nothing.
+     */
+    private static final class Bucket {
+        private TimerTask<?> head;
+        private TimerTask<?> tail;
+
+        void add(TimerTask<?> task) {
+            task.bucket = this;
+            task.prev = tail;
+            task.next = null;
+            if (tail == null) {
+                head = task;
+            } else {
+                tail.next = task;
+            }
+            tail = task;
+        }
+
+        void unlink(TimerTask<?> task) {
+            if (task.prev == null) {
+                head = task.next;
+            } else {
+                task.prev.next = task.next;
+            }
+            if (task.next == null) {
+                tail = task.prev;
+            } else {
+                task.next.prev = task.prev;
+            }
+            task.unlinked();
+        }
+
+        // Returns the old head; callers walk it via next and must call unlinked() on each task
+        TimerTask<?> detachAll() {
+            TimerTask<?> first = head;
+            head = null;
+            tail = null;
+            return first;
+        }
+    }
+
+    private final class TimerTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        // 0 = one-shot, > 0 = fixed rate, < 0 = fixed delay
+        private final long period;
+        private volatile long deadline;
+
+        // Bucket links, only touched by the ticker thread
+        private Bucket bucket;
+        private TimerTask<?> prev;
+        private TimerTask<?> next;
+
+        TimerTask(Runnable runnable, V result, long deadline, long period) {
+            super(runnable, result);
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        TimerTask(Callable<V> callable, long deadline, long period) {
+            super(callable);
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        void unlinked() {
+            bucket = null;
+            prev = null;
+            next = null;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other == this) {
+                return 0;
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (super.runAndReset()) {
+                deadline = period > 0 ? deadline + period : System.nanoTime() - period;
+                reArm(this);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                // The ticker unlinks it on its next tick
+                pendingCancels.add(this);
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ExecutorService.TimingWheel;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JDK heap-based scheduler with HierarchicalTimingWheelScheduler when millions
+ * of reminders are pending at the same time.
+ *
+ * For every scheduler it measures:
+ * - schedule throughput with several submitting threads (lock contention on the queue)
+ * - retained heap per pending task
+ * - cancel throughput
+ * The timing wheel's clock runs until its ticker has placed (or unlinked) every task, as the JDK
+ * scheduler does inside schedule() and cancel() themselves.
+ *
+ * Usage: java -Xmx8g ExecutorService.TimingWheel.TimingWheelBenchmark [pendingTasks] [submitterThreads]
+ * The request target is 10_000_000 pending tasks; the default is smaller so it runs on a laptop.
+ */
+public class TimingWheelBenchmark {
+
+    // Never actually runs: every delay is far in the future
+    private static final Runnable NO_OP = () -> { };
+
+    public static void main(String[] args) throws Exception {
+        int pendingTasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int submitters = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        System.out.printf("%,d pending tasks, %d submitting threads%n%n", pendingTasks, submitters);
+
+        ScheduledThreadPoolExecutor jdk = new ScheduledThreadPoolExecutor(3);
+        // Without this, cancelled tasks stay in the heap until their delay expires
+        jdk.setRemoveOnCancelPolicy(true);
+        run("ScheduledThreadPoolExecutor", jdk, pendingTasks, submitters);
+
+        run("HierarchicalTimingWheelScheduler",
+                new HierarchicalTimingWheelScheduler(1, TimeUnit.MILLISECONDS, Executors.newFixedThreadPool(3)),
+                pendingTasks, submitters);
+    }
+
+    private static void run(String name, ScheduledExecutorService scheduler, int pendingTasks, int submitters)
+            throws InterruptedException {
+        ScheduledFuture<?>[] futures = new ScheduledFuture<?>[pendingTasks];
+        long heapBefore = usedHeap();
+
+        long start = System.nanoTime();
+        inParallel(submitters, pendingTasks, i -> {
+            // Spread reminders across the next 1..60 minutes
+            long delaySeconds = 60 + ThreadLocalRandom.current().nextLong(3540);
+            futures[i] = scheduler.schedule(NO_OP, delaySeconds, TimeUnit.SECONDS);
+        });
+        awaitHandOffs(scheduler);
+        long scheduleNanos = System.nanoTime() - start;
+        long heapAfter = usedHeap();
+
+        start = System.nanoTime();
+        inParallel(submitters, pendingTasks, i -> futures[i].cancel(false));
+        awaitHandOffs(scheduler);
+        long cancelNanos = System.nanoTime() - start;
+
+        System.out.println(name);
+        System.out.printf("  schedule: %,12.0f ops/s%n", pendingTasks / (scheduleNanos / 1e9));
+        System.out.printf("  cancel:   %,12.0f ops/s%n", pendingTasks / (cancelNanos / 1e9));
+        System.out.printf("  heap:     %,12d bytes per pending task%n%n", (heapAfter - heapBefore) / pendingTasks);
+
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    // The JDK scheduler inserts into and removes from its heap inside schedule() and cancel(); the
+    // timing wheel only queues them for its ticker, so its clock stops once the ticker is done too
+    private static void awaitHandOffs(ScheduledExecutorService scheduler) throws InterruptedException {
+        if (scheduler instanceof HierarchicalTimingWheelScheduler) {
+            ((HierarchicalTimingWheelScheduler) scheduler).awaitHandOffs();
+        }
+    }
+
+    private interface IndexedAction {
+        void apply(int index);
+    }
+
+    // Splits [0, count) between the threads and waits for them
+    private static void inParallel(int threads, int count, IndexedAction action) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        int chunk = (count + threads - 1) / threads;
+        for (int t = 0; t < threads; t++) {
+            int from = t * chunk;
+            int to = Math.min(count, from + chunk);
+            workers[t] = new Thread(() -> {
+                for (int i = from; i < to; i++) {
+                    action.apply(i);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,45 @@
+package ExecutorService.TimingWheel;
+
+import ExecutorService.ScheduledThreadPool.Customer;
+import ExecutorService.ScheduledThreadPool.PolicyReminderCallableTask;
+import ExecutorService.ScheduledThreadPool.PolicyReminderRunnableTask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Same flow as ScheduledThreadPool.PolicyReminderService, only the scheduler is swapped.
+// The wheel only keeps the timers; the reminders themselves run on its 3 worker threads.
+public class TimingWheelReminderService {
+    public static void main(String[] args) throws Exception {
+        Customer[] customers = {
+                new Customer("Alice", "alice@example.com"),
+                new Customer("Bob", "bob@example.com"),
+                new Customer("Charlie", "charlie@example.com"),
+                new Customer("David", "david@example.com"),
+                new Customer("Eve", "eve@example.com")
+        };
+
+        ScheduledExecutorService scheduler = new HierarchicalTimingWheelScheduler(3);
+
+        List<ScheduledFuture<String>> futures = new ArrayList<>();
+        for (Customer customer : customers) {
+            futures.add(scheduler.schedule(new PolicyReminderCallableTask(customer), 5, TimeUnit.SECONDS));
+        }
+
+        for (Customer customer : customers) {
+            scheduler.scheduleAtFixedRate(new PolicyReminderRunnableTask(customer), 0, 10, TimeUnit.SECONDS);
+        }
+
+        for (ScheduledFuture<String> future : futures) {
+            System.out.println(future.get());
+        }
+
+        // Periodic reminders are cancelled on shutdown, exactly like ScheduledThreadPoolExecutor
+        scheduler.schedule(scheduler::shutdown, 30, TimeUnit.SECONDS);
+        scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        System.out.println("Timing wheel scheduler shutdown");
+    }
+}
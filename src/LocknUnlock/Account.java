@@ -0,0 +1,13 @@
+package LocknUnlock;
+
+/**
+ * The balance API shared by the account implementations, so benchmarks can run the same workload
+ * against each of them.
+ */
+public interface Account {
+    double getBalance();
+
+    void deposit(double amount);
+
+    void withdraw(double amount);
+}
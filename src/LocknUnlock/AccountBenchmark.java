@@ -0,0 +1,173 @@
+package LocknUnlock;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Read-mostly load on one account: every thread loops on getBalance(), and 1% of its operations
+ * are a deposit or a withdrawal of 1.0 (alternating, so the balance stays put).
+ *
+ * Runs 1..64 threads against ReadWriteLocksWithReentrant and StampedLockAccount and prints reads
+ * per second. The accounts print on every write; System.out is silenced while measuring so the
+ * console does not become the bottleneck, but the messages are still built, as in production.
+ *
+ * measure() is reused by the other account benchmarks in this package.
+ */
+public class AccountBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32, 64};
+    private static final long MEASURE_MILLIS = 1000;
+
+    // Keeps the JIT from dropping getBalance() calls whose result is unused
+    private static volatile double blackhole;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%-8s %28s %28s%n", "threads", "ReentrantReadWriteLock", "StampedLock (optimistic)");
+        // Warm-up so the first row is not measuring the JIT
+        measure(() -> new ReadWriteLocksWithReentrant(1_000_000), 8, 1, MEASURE_MILLIS);
+        measure(() -> new StampedLockAccount(1_000_000), 8, 1, MEASURE_MILLIS);
+        for (int threads : THREAD_COUNTS) {
+            Result readWrite = measure(() -> new ReadWriteLocksWithReentrant(1_000_000), threads, 1, MEASURE_MILLIS);
+            Result stamped = measure(() -> new StampedLockAccount(1_000_000), threads, 1, MEASURE_MILLIS);
+            System.out.printf("%-8d %20.2f M reads/s %20.2f M reads/s%n", threads,
+                    readWrite.readsPerSecond() / 1e6, stamped.readsPerSecond() / 1e6);
+        }
+    }
+
+    /**
+     * Runs {@code threads} threads against a fresh account for {@code millis} ms; each operation
+     * is a write with probability {@code writePercent}% (down to 0.001%), a getBalance() otherwise.
+     */
+    public static Result measure(Supplier<? extends Account> accounts, int threads, double writePercent, long millis)
+            throws InterruptedException {
+        Account account = accounts.get();
+        int writesPer100k = (int) Math.round(writePercent * 1000);
+        long[] reads = new long[threads];
+        long[] writes = new long[threads];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long localReads = 0;
+                long localWrites = 0;
+                double sink = 0;
+                ready.countDown();
+                awaitQuietly(start);
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+                while (true) {
+                    // Check the clock every 256 operations only
+                    for (int i = 0; i < 256; i++) {
+                        if (random.nextInt(100_000) < writesPer100k) {
+                            if ((localWrites++ & 1) == 0) {
+                                account.deposit(1.0);
+                            } else {
+                                account.withdraw(1.0);
+                            }
+                        } else {
+                            sink += account.getBalance();
+                            localReads++;
+                        }
+                    }
+                    if (System.nanoTime() >= end) {
+                        break;
+                    }
+                }
+                reads[index] = localReads;
+                writes[index] = localWrites;
+                blackhole = sink;
+            }, "account-bench-" + t);
+            workers[t].start();
+        }
+
+        PrintStream console = System.out;
+        ready.await();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - begin;
+            long totalReads = 0;
+            long totalWrites = 0;
+            long[] perThread = new long[threads];
+            for (int t = 0; t < threads; t++) {
+                totalReads += reads[t];
+                totalWrites += writes[t];
+                perThread[t] = reads[t] + writes[t];
+            }
+            return new Result(totalReads, totalWrites, perThread, elapsed);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static final class Result {
+        private final long reads;
+        private final long writes;
+        private final long[] perThread;
+        private final long elapsedNanos;
+
+        Result(long reads, long writes, long[] perThread, long elapsedNanos) {
+            this.reads = reads;
+            this.writes = writes;
+            this.perThread = perThread;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double readsPerSecond() {
+            return reads * 1e9 / elapsedNanos;
+        }
+
+        public double writesPerSecond() {
+            return writes * 1e9 / elapsedNanos;
+        }
+
+        public double opsPerSecond() {
+            return (reads + writes) * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * Jain's fairness index over the per-thread operation counts: 1.0 when every thread got
+         * the same share, 1/threads when one thread got everything.
+         */
+        public double fairness() {
+            double sum = 0;
+            double sumOfSquares = 0;
+            for (long ops : perThread) {
+                sum += ops;
+                sumOfSquares += (double) ops * ops;
+            }
+            return sumOfSquares == 0 ? 1.0 : sum * sum / (perThread.length * sumOfSquares);
+        }
+
+        /**
+         * Operations of the least served thread divided by those of the best served one.
+         */
+        public double minMaxRatio() {
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            for (long ops : perThread) {
+                min = Math.min(min, ops);
+                max = Math.max(max, ops);
+            }
+            return max == 0 ? 1.0 : (double) min / max;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package LocknUnlock;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Reentrant, non-fair lock that spins for a while before it parks, and learns how long to spin.
+ *
+ * For a critical section like counter++ the lock is usually free again within a few hundred
+ * nanoseconds, while parking and being unparked costs a few microseconds plus a context switch.
+ * ReentrantLock parks almost immediately. This lock, on a failed first attempt:
+ * - spins (Thread.onSpinWait) for up to twice the recent average hold time, capped at
+ *   MAX_SPIN_NANOS, retrying whenever the lock looks free
+ * - keeps a score of whether spinning has been paying off: +1 when a spin ends with the lock,
+ *   -2 when it ends in a park. With a score of 0 it parks straight away and only probes with a
+ *   spin on every PROBE_EVERY-th contended acquire, so long critical sections stop costing CPU
+ * - never spins on a single-CPU machine, where the owner cannot make progress while we spin
+ *
+ * The hold time is sampled on one in HOLD_SAMPLE_EVERY acquires. Queueing, parking, conditions
+ * and reentrancy are AbstractQueuedSynchronizer's, the same machinery ReentrantLock uses, so this
+ * can be used wherever a Lock is expected. A Condition.await() ends the sampled hold and the
+ * reacquire after it starts a new one, so time spent waiting is never counted as hold time.
+ */
+public class AdaptiveSpinLock implements Lock {
+
+    private static final boolean MULTI_CORE = Runtime.getRuntime().availableProcessors() > 1;
+    private static final long MAX_SPIN_NANOS = 20_000;
+    private static final int MAX_SCORE = 16;
+    private static final int PROBE_EVERY = 64;
+    private static final int HOLD_SAMPLE_EVERY = 8;
+
+    private final Sync sync = new Sync();
+
+    // Read by spinning threads, written by the owner
+    private volatile long averageHoldNanos = 1_000;
+    private volatile int spinScore = MAX_SCORE / 2;
+
+    // Only touched by the thread holding the lock
+    private int acquiresUntilSample;
+    private long holdStartNanos;
+    private int contendedAcquires;
+
+    private final LongAdder spinWins = new LongAdder();
+    private final LongAdder spinLosses = new LongAdder();
+
+    @Override
+    public void lock() {
+        if (!sync.tryAcquire(1)) {
+            if (!spinAcquire()) {
+                sync.acquire(1);
+            }
+        }
+        acquired();
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (!sync.tryAcquire(1)) {
+            if (!spinAcquire()) {
+                sync.acquireInterruptibly(1);
+            }
+        }
+        acquired();
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (sync.tryAcquire(1)) {
+            acquired();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (sync.tryAcquire(1) || sync.tryAcquireNanos(1, unit.toNanos(time))) {
+            acquired();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void unlock() {
+        if (holdStartNanos != 0 && sync.isHeldExclusively() && sync.holdCount() == 1) {
+            long held = System.nanoTime() - holdStartNanos;
+            holdStartNanos = 0;
+            // Exponentially weighted: each sample counts for 1/8
+            averageHoldNanos += (held - averageHoldNanos) >> 3;
+        }
+        sync.release(1);
+    }
+
+    @Override
+    public Condition newCondition() {
+        return new HoldTimedCondition(sync.newCondition());
+    }
+
+    public boolean isLocked() {
+        return sync.holdCount() != 0;
+    }
+
+    public long getAverageHoldNanos() {
+        return averageHoldNanos;
+    }
+
+    public long getSpinWins() {
+        return spinWins.sum();
+    }
+
+    public long getSpinLosses() {
+        return spinLosses.sum();
+    }
+
+    private void acquired() {
+        // Outermost acquire only; reentrant acquires are part of the same hold
+        if (sync.holdCount() == 1 && --acquiresUntilSample <= 0) {
+            acquiresUntilSample = HOLD_SAMPLE_EVERY;
+            holdStartNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * @return true if the lock was acquired while spinning
+     */
+    private boolean spinAcquire() {
+        if (!MULTI_CORE) {
+            return false;
+        }
+        // Racy increment on purpose: only used to pick which contended acquires probe
+        if (spinScore <= 0 && ++contendedAcquires % PROBE_EVERY != 0) {
+            return false;
+        }
+        long budget = Math.min(MAX_SPIN_NANOS, 2 * averageHoldNanos);
+        long start = System.nanoTime();
+        int spins = 0;
+        do {
+            if (sync.holdCount() == 0 && sync.tryAcquire(1)) {
+                spinWins.increment();
+                spinScore = Math.min(MAX_SCORE, spinScore + 1);
+                return true;
+            }
+            Thread.onSpinWait();
+        } while ((++spins & 15) != 0 || System.nanoTime() - start < budget);
+        spinLosses.increment();
+        spinScore = Math.max(0, spinScore - 2);
+        return false;
+    }
+
+    /**
+     * AQS releases and reacquires the lock around a wait without going through unlock() and
+     * acquired(), so the hold sample is suspended here instead.
+     */
+    private final class HoldTimedCondition implements Condition {
+        private final Condition delegate;
+
+        HoldTimedCondition(Condition delegate) {
+            this.delegate = delegate;
+        }
+
+        // Returns whether the hold was being sampled; only the owner may touch holdStartNanos
+        private boolean suspendSample() {
+            if (!sync.isHeldExclusively() || holdStartNanos == 0) {
+                return false;
+            }
+            holdStartNanos = 0;
+            return true;
+        }
+
+        // The lock is held again here, also when the wait ended with an exception
+        private void resumeSample(boolean sampled) {
+            if (sampled) {
+                holdStartNanos = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void await() throws InterruptedException {
+            boolean sampled = suspendSample();
+            try {
+                delegate.await();
+            } finally {
+                resumeSample(sampled);
+            }
+        }
+
+        @Override
+        public void awaitUninterruptibly() {
+            boolean sampled = suspendSample();
+            try {
+                delegate.awaitUninterruptibly();
+            } finally {
+                resumeSample(sampled);
+            }
+        }
+
+        @Override
+        public long awaitNanos(long nanosTimeout) throws InterruptedException {
+            boolean sampled = suspendSample();
+            try {
+                return delegate.awaitNanos(nanosTimeout);
+            } finally {
+                resumeSample(sampled);
+            }
+        }
+
+        @Override
+        public boolean await(long time, TimeUnit unit) throws InterruptedException {
+            boolean sampled = suspendSample();
+            try {
+                return delegate.await(time, unit);
+            } finally {
+                resumeSample(sampled);
+            }
+        }
+
+        @Override
+        public boolean awaitUntil(Date deadline) throws InterruptedException {
+            boolean sampled = suspendSample();
+            try {
+                return delegate.awaitUntil(deadline);
+            } finally {
+                resumeSample(sampled);
+            }
+        }
+
+        @Override
+        public void signal() {
+            delegate.signal();
+        }
+
+        @Override
+        public void signalAll() {
+            delegate.signalAll();
+        }
+    }
+
+    private static final class Sync extends AbstractQueuedSynchronizer {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean tryAcquire(int acquires) {
+            Thread current = Thread.currentThread();
+            int state = getState();
+            if (state == 0) {
+                if (compareAndSetState(0, acquires)) {
+                    setExclusiveOwnerThread(current);
+                    return true;
+                }
+            } else if (getExclusiveOwnerThread() == current) {
+                int next = state + acquires;
+                if (next < 0) {
+                    throw new Error("Maximum lock count exceeded");
+                }
+                setState(next);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected boolean tryRelease(int releases) {
+            if (getExclusiveOwnerThread() != Thread.currentThread()) {
+                throw new IllegalMonitorStateException();
+            }
+            int next = getState() - releases;
+            boolean free = next == 0;
+            if (free) {
+                setExclusiveOwnerThread(null);
+            }
+            setState(next);
+            return free;
+        }
+
+        @Override
+        protected boolean isHeldExclusively() {
+            return getExclusiveOwnerThread() == Thread.currentThread();
+        }
+
+        // Hold count of the owner, 0 when free
+        int holdCount() {
+            return getState();
+        }
+
+        Condition newCondition() {
+            return new ConditionObject();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package LocknUnlock;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * LockExampleWithReentrantLock's counter++ under ReentrantLock, synchronized and AdaptiveSpinLock,
+ * with 0, 0.1, 1 and 10 microseconds of extra work in the critical section, at 2..16 threads.
+ * Uses LockFairnessBenchmark's harness, so the columns mean the same thing there and here.
+ *
+ * For the adaptive lock it also prints how often a spin ended with the lock (win) or in a park
+ * (loss), which shows the spin budget adapting to the critical-section length.
+ */
+public class AdaptiveSpinLockBenchmark {
+
+    private static final int[] THREAD_COUNTS = {2, 4, 8, 16};
+    private static final long[] CRITICAL_SECTION_NANOS = {0, 100, 1_000, 10_000};
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%d CPUs%n", Runtime.getRuntime().availableProcessors());
+        AdaptiveSpinLock[] last = new AdaptiveSpinLock[1];
+        Supplier<Lock> adaptive = () -> last[0] = new AdaptiveSpinLock();
+        Supplier<Lock> reentrant = ReentrantLock::new;
+        Supplier<Lock> synchronizedBlock = () -> null;
+
+        for (Supplier<Lock> locks : List.of(reentrant, synchronizedBlock, adaptive)) {
+            LockFairnessBenchmark.run(locks, 8, 0);  // warm-up
+        }
+        for (long criticalSection : CRITICAL_SECTION_NANOS) {
+            System.out.printf("%nCritical section: counter++ plus %.1f us of work%n", criticalSection / 1000.0);
+            System.out.printf("%-8s %-14s %12s %10s %10s%n", "threads", "lock", "M incr/s", "p50 us", "p99 us");
+            for (int threads : THREAD_COUNTS) {
+                print(threads, "ReentrantLock", LockFairnessBenchmark.run(reentrant, threads, criticalSection), "");
+                print(threads, "synchronized", LockFairnessBenchmark.run(synchronizedBlock, threads, criticalSection), "");
+                LockFairnessBenchmark.Result result = LockFairnessBenchmark.run(adaptive, threads, criticalSection);
+                print(threads, "AdaptiveSpin", result, String.format("   spins won %d, lost %d, avg hold %d ns",
+                        last[0].getSpinWins(), last[0].getSpinLosses(), last[0].getAverageHoldNanos()));
+            }
+        }
+    }
+
+    private static void print(int threads, String name, LockFairnessBenchmark.Result result, String extra) {
+        System.out.printf("%-8d %-14s %12.3f %10.1f %10.1f%s%n", threads, name, result.perSecond / 1e6,
+                result.waits.percentileNanos(0.50) / 1e3, result.waits.percentileNanos(0.99) / 1e3, extra);
+    }
+}
@@ -0,0 +1,49 @@
+package LocknUnlock;
+
+/**
+ * Base of the accounts that keep the balance as a long number of cents.
+ *
+ * The *Cents methods are the quiet, exact API each subclass implements. The double methods of
+ * Account are written once here on top of them: they round to whole cents and print the same
+ * messages as ReadWriteLocksWithReentrant, after the operation, so the benchmarks can swap any of
+ * these accounts in for it.
+ */
+public abstract class CentsAccount implements Account {
+
+    public abstract long getBalanceCents();
+
+    /**
+     * @return the new balance
+     */
+    public abstract long depositCents(long cents);
+
+    /**
+     * @return the new balance, or -1 (and no change) if the account holds less than {@code cents}
+     */
+    public abstract long withdrawCents(long cents);
+
+    @Override
+    public final double getBalance() {
+        return getBalanceCents() / 100.0;
+    }
+
+    @Override
+    public final void deposit(double amount) {
+        long cents = Math.round(amount * 100);
+        if (cents > 0) {
+            long newBalance = depositCents(cents);
+            System.out.println("Deposited: " + amount + ", New Balance: " + newBalance / 100.0);
+        }
+    }
+
+    @Override
+    public final void withdraw(double amount) {
+        long cents = Math.round(amount * 100);
+        long newBalance = cents > 0 ? withdrawCents(cents) : -1;
+        if (newBalance >= 0) {
+            System.out.println("Withdrew: " + amount + ", New Balance: " + newBalance / 100.0);
+        } else {
+            System.out.println("Withdrawal of " + amount + " failed. Insufficient funds.");
+        }
+    }
+}
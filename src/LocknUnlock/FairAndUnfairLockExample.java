@@ -1,5 +1,8 @@
 package LocknUnlock;
 
+import Counters.Counter;
+import Counters.StripedCounter;
+
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -8,10 +11,13 @@ public class FairAndUnfairLockExample {
     private int counter = 0;
 
     // Fair lock: threads acquire the lock in the order they requested it
-    private final Lock fairLock = new ReentrantLock(true);
+    private final Lock fairLock = LockProfiler.lock("FairAndUnfairLockExample.fair", new ReentrantLock(true));
 
     // Unfair lock: threads may acquire the lock out of order
-    private final Lock unfairLock = new ReentrantLock(false);
+    private final Lock unfairLock = LockProfiler.lock("FairAndUnfairLockExample.unfair", new ReentrantLock(false));
+
+    // No lock at all: per-thread padded cells, neither fair nor unfair because nobody waits
+    private final Counter stripedCounter = new StripedCounter();
 
     // Method to increment the counter using a fair lock
     public void incrementWithFairLock() {
@@ -41,6 +47,12 @@ public class FairAndUnfairLockExample {
         }
     }
 
+    // Method to increment the striped counter; main() reads sum() once the increments stop
+    public void incrementWithStripedCounter() {
+        stripedCounter.increment();
+        System.out.println(Thread.currentThread().getName() + " incremented striped counter");
+    }
+
     public static void main(String[] args) {
         FairAndUnfairLockExample example = new FairAndUnfairLockExample();
         FairAndUnfairLockExample example1 = new FairAndUnfairLockExample();
@@ -88,5 +100,24 @@ public class FairAndUnfairLockExample {
 
         // Print the final value of the counter
         System.out.println("Final counter value: " + example.counter);
+
+        // Same again with the striped counter, no lock involved
+        Thread t7 = new Thread(example::incrementWithStripedCounter, "Thread-7");
+        Thread t8 = new Thread(example::incrementWithStripedCounter, "Thread-8");
+        Thread t9 = new Thread(example::incrementWithStripedCounter, "Thread-9");
+
+        t7.start();
+        t8.start();
+        t9.start();
+
+        try {
+            t7.join();
+            t8.join();
+            t9.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        System.out.println("Final striped counter value: " + example.stripedCounter.sum());
     }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package LocknUnlock;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Account for one very hot balance, using flat combining instead of a lock per operation.
+ *
+ * With ReadWriteLocksWithReentrant every deposit and withdrawal takes the write lock itself, so
+ * under heavy contention the lock is handed from thread to thread, each hand-off costing a park
+ * and an unpark. Here a thread instead:
+ * - writes its operation into its own slot (one per thread, linked into a publication list)
+ * - tries to become the combiner with tryLock(); the combiner walks the list and applies every
+ *   pending operation in one pass, writing each result back into its slot
+ * - otherwise waits until its slot has been served, or the combiner lock is free again
+ *
+ * One thread thus does the work of many while holding the balance in its cache, and the others
+ * never queue on the lock. Operations are applied one at a time in list order, so a withdrawal
+ * is always checked against the balance it actually changes.
+ *
+ * Slots of threads that stay idle for AGE_LIMIT passes are unlinked by the combiner and
+ * relinked by their thread on its next operation. The double methods of CentsAccount print their
+ * message after the operation, outside any lock.
+ */
+public class FlatCombiningAccount extends CentsAccount {
+
+    private static final int AGE_LIMIT = 1024;
+    // Waiting for a combiner only makes sense if it can run at the same time
+    private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 256 : 0;
+
+    private final ReentrantLock combinerLock = new ReentrantLock();
+    private final AtomicReference<Slot> head = new AtomicReference<>();
+    private final ThreadLocal<Slot> slots = ThreadLocal.withInitial(Slot::new);
+    // Written only by the combiner; volatile so getBalance() needs no lock
+    private volatile long balanceCents;
+    private volatile long passes;
+    private volatile long combined;
+
+    public FlatCombiningAccount(long initialCents) {
+        this.balanceCents = initialCents;
+    }
+
+    @Override
+    public long getBalanceCents() {
+        return balanceCents;
+    }
+
+    @Override
+    public long depositCents(long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Deposit must be positive: " + cents);
+        }
+        return apply(cents);
+    }
+
+    @Override
+    public long withdrawCents(long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Withdrawal must be positive: " + cents);
+        }
+        return apply(-cents);
+    }
+
+    /**
+     * Average number of operations applied per combining pass; 1.0 means no combining happened.
+     */
+    public double getAverageBatch() {
+        long n = passes;
+        return n == 0 ? 0 : (double) combined / n;
+    }
+
+    // delta > 0 deposits, delta < 0 withdraws
+    private long apply(long delta) {
+        Slot slot = slots.get();
+        slot.request = delta;
+        if (!slot.linked) {
+            link(slot);
+        }
+        while (true) {
+            if (combinerLock.tryLock()) {
+                try {
+                    combine();
+                } finally {
+                    combinerLock.unlock();
+                }
+                // Our slot is linked, so the pass has served it
+                return slot.response;
+            }
+            for (int i = 0; ; i++) {
+                if (slot.request == 0) {
+                    return slot.response;
+                }
+                if (!combinerLock.isLocked()) {
+                    break;  // the combiner left before reaching us; try to take over
+                }
+                if (i < SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+    }
+
+    private void link(Slot slot) {
+        slot.linked = true;
+        Slot first;
+        do {
+            first = head.get();
+            slot.next = first;
+        } while (!head.compareAndSet(first, slot));
+    }
+
+    // Called with combinerLock held
+    private void combine() {
+        long pass = ++passes;
+        long balance = balanceCents;
+        long served = 0;
+        Slot previous = null;
+        for (Slot slot = head.get(); slot != null; ) {
+            Slot next = slot.next;
+            long delta = slot.request;
+            if (delta != 0) {
+                balance = serve(slot, delta, balance);
+                slot.lastServed = pass;
+                served++;
+                previous = slot;
+            } else if (previous != null && pass - slot.lastServed > AGE_LIMIT) {
+                // Only interior slots are unlinked: new slots are pushed at the head concurrently
+                previous.next = next;
+                slot.linked = false;
+                // Its owner may have published just before seeing linked == false
+                delta = slot.request;
+                if (delta != 0) {
+                    balance = serve(slot, delta, balance);
+                    served++;
+                }
+            } else {
+                previous = slot;
+            }
+            slot = next;
+        }
+        balanceCents = balance;
+        combined += served;
+    }
+
+    private static long serve(Slot slot, long delta, long balance) {
+        if (delta < 0 && balance < -delta) {
+            slot.response = -1;
+        } else {
+            balance += delta;
+            slot.response = balance;
+        }
+        slot.request = 0;  // volatile write publishes the response
+        return balance;
+    }
+
+    private static final class Slot {
+        volatile long request;
+        long response;
+        volatile boolean linked;
+        // Combiner-only
+        Slot next;
+        long lastServed;
+    }
+}
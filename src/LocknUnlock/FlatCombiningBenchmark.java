@@ -0,0 +1,48 @@
+package LocknUnlock;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 8 to 64 threads hammering one account with deposit(1.0) / withdraw(1.0), nothing else, against
+ * ReadWriteLocksWithReentrant (write lock per operation), FlatCombiningAccount and, for
+ * reference, LockFreeAccount (CAS per operation).
+ *
+ * All three go through the Account API, so each one also builds its console message per write
+ * (System.out is silenced while measuring); the write-lock version builds it inside the lock.
+ * Prints M operations per second, Jain's fairness index, and for flat combining the average
+ * number of operations one combiner applied per pass; deposits and withdrawals alternate, so the
+ * balance must end where it started.
+ */
+public class FlatCombiningBenchmark {
+
+    private static final int[] THREAD_COUNTS = {8, 16, 32, 64};
+    private static final long MEASURE_MILLIS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("One account, 100%% writes, %d CPUs%n", Runtime.getRuntime().availableProcessors());
+        Supplier<Account> writeLock = () -> new ReadWriteLocksWithReentrant(1_000_000);
+        FlatCombiningAccount[] combining = new FlatCombiningAccount[1];
+        Supplier<Account> flatCombining = () -> combining[0] = new FlatCombiningAccount(100_000_000);
+        Supplier<Account> cas = () -> new LockFreeAccount(100_000_000);
+
+        for (Supplier<Account> accounts : List.of(writeLock, flatCombining, cas)) {
+            AccountBenchmark.measure(accounts, 8, 100, MEASURE_MILLIS);  // warm-up
+        }
+        System.out.printf("%-8s %22s %32s %22s%n", "threads", "write lock (ops, Jain)",
+                "flat combining (ops, Jain, batch)", "CAS (ops, Jain)");
+        for (int threads : THREAD_COUNTS) {
+            AccountBenchmark.Result locked = AccountBenchmark.measure(writeLock, threads, 100, MEASURE_MILLIS);
+            AccountBenchmark.Result combined = AccountBenchmark.measure(flatCombining, threads, 100, MEASURE_MILLIS);
+            double batch = combining[0].getAverageBatch();
+            if (combining[0].getBalanceCents() != 100_000_000) {
+                System.out.println("flat combining lost updates: balance " + combining[0].getBalanceCents());
+            }
+            AccountBenchmark.Result casResult = AccountBenchmark.measure(cas, threads, 100, MEASURE_MILLIS);
+            System.out.printf("%-8d %15.2f %6.3f %18.2f %6.3f %6.1f %15.2f %6.3f%n", threads,
+                    locked.opsPerSecond() / 1e6, locked.fairness(),
+                    combined.opsPerSecond() / 1e6, combined.fairness(), batch,
+                    casResult.opsPerSecond() / 1e6, casResult.fairness());
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package LocknUnlock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Event-sourced account: every deposit and withdrawal is appended to a memory-mapped journal, so
+ * the balance survives a restart.
+ *
+ * Files in the directory:
+ * - account-N.journal  journal segment whose first record has sequence number N: a header of two
+ *                      [long durable sequence][long check] slots, then fixed-size records
+ *                      [long sequence][long delta cents][long balance after][long check]
+ * - account.snapshot   [long sequence][long balance cents][long check]: the balance after that
+ *                      record, written when a segment fills up (and by snapshot())
+ *
+ * An append is a few stores into the mapped segment under a lock, no system call. A background
+ * thread forces the written range to disk every flushIntervalMillis (group commit), so a crash
+ * loses at most that interval; durableSequence() tells how far the journal is known to be on disk.
+ * flushIntervalMillis == 0 forces every record before the call returns instead, for comparison.
+ *
+ * The header of a segment holds the last of its records known to be on disk. It is written only
+ * once the records it covers have been forced (by flush(), roll() and close(), or by every append
+ * when each record is forced), and then forced itself. Each update overwrites the older of its two
+ * slots, so a header page torn by a crash still has the previous value in the other one.
+ *
+ * On open() the snapshot is loaded and only the records after it are replayed, after which a
+ * new snapshot is taken. A record whose sequence number does not follow the previous one or whose
+ * check does not match ends the journal if it lies past the header's durable sequence: pages
+ * written since the last flush reach the disk in any order on power loss, so a hole with valid
+ * records after it is a normal torn tail there, as are the zeros after the last record; whatever
+ * follows is dropped. As in ReminderStore a replayed segment is never appended to, writing
+ * continues in a new one. A bad record at or below the durable sequence, or a missing segment, is
+ * corruption of durable records and open() throws an IOException rather than drop them.
+ *
+ * Failed withdrawals change nothing and are not journaled.
+ */
+public class JournaledAccount extends CentsAccount implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "account-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String SNAPSHOT_FILE = "account.snapshot";
+    private static final int RECORD_BYTES = 32;
+    private static final int HEADER_BYTES = RECORD_BYTES;
+    private static final int DEFAULT_SEGMENT_BYTES = 64 << 20;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long flushIntervalMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Object snapshotLock = new Object();
+    private final ScheduledExecutorService flusher;
+
+    // Guarded by lock
+    private MappedByteBuffer segment;
+    private long segmentFirstSequence;
+    private int position;
+    private int flushedPosition;
+    private long sequence;
+    private boolean closed;
+
+    private volatile long balanceCents;
+    // Written under lock, read without it
+    private volatile long durableSequence;
+    private long replayedRecords;
+
+    private JournaledAccount(Path directory, long flushIntervalMillis, int segmentBytes) {
+        this.directory = directory;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.segmentBytes = segmentBytes - segmentBytes % RECORD_BYTES;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "journal-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the account stored in {@code directory}, or creates it with {@code initialCents}.
+     *
+     * @param flushIntervalMillis how often appended records are forced to disk; 0 forces each one
+     */
+    public static JournaledAccount open(Path directory, long initialCents, long flushIntervalMillis) throws IOException {
+        return open(directory, initialCents, flushIntervalMillis, DEFAULT_SEGMENT_BYTES);
+    }
+
+    public static JournaledAccount open(Path directory, long initialCents, long flushIntervalMillis, int segmentBytes)
+            throws IOException {
+        if (flushIntervalMillis < 0 || segmentBytes < HEADER_BYTES + RECORD_BYTES) {
+            throw new IllegalArgumentException("flushIntervalMillis must be >= 0, segmentBytes >= "
+                    + (HEADER_BYTES + RECORD_BYTES));
+        }
+        Files.createDirectories(directory);
+        JournaledAccount account = new JournaledAccount(directory, flushIntervalMillis, segmentBytes);
+        account.recover(initialCents);
+        if (account.replayedRecords > 0) {
+            // The next open starts from here, and the replayed segments can go
+            account.snapshot();
+        }
+        if (flushIntervalMillis > 0) {
+            account.flusher.scheduleWithFixedDelay(account::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        }
+        return account;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Operations
+
+    @Override
+    public long getBalanceCents() {
+        return balanceCents;
+    }
+
+    @Override
+    public long depositCents(long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Deposit must be positive: " + cents);
+        }
+        return append(cents);
+    }
+
+    /**
+     * @return the new balance, or -1 (and nothing journaled) if the account holds less than {@code cents}
+     */
+    @Override
+    public long withdrawCents(long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Withdrawal must be positive: " + cents);
+        }
+        return append(-cents);
+    }
+
+    /**
+     * Sequence number of the last journaled operation.
+     */
+    public long sequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Every operation up to this sequence number is on disk.
+     */
+    public long durableSequence() {
+        return durableSequence;
+    }
+
+    /**
+     * Records replayed from the journal by open(), i.e. those newer than the snapshot.
+     */
+    public long replayedRecords() {
+        return replayedRecords;
+    }
+
+    private long append(long delta) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Account journal is closed");
+            }
+            long balance = balanceCents + delta;
+            if (balance < 0) {
+                return -1;
+            }
+            if (position == segmentBytes) {
+                roll();
+            }
+            long seq = ++sequence;
+            int at = position;
+            segment.putLong(at, seq);
+            segment.putLong(at + 8, delta);
+            segment.putLong(at + 16, balance);
+            segment.putLong(at + 24, check(seq, delta, balance));
+            position = at + RECORD_BYTES;
+            balanceCents = balance;
+            if (flushIntervalMillis == 0) {
+                segment.force(at, RECORD_BYTES);
+                markDurable(segment, segmentFirstSequence, seq);
+                segment.force(0, HEADER_BYTES);
+                flushedPosition = position;
+                durableSequence = seq;
+            }
+            return balance;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with lock held and the current segment full
+    private void roll() throws IOException {
+        markDurable(segment, segmentFirstSequence, sequence);
+        segment.force();
+        durableSequence = sequence;
+        openSegment(sequence + 1);
+        // Compact off the writer's thread; the full segment is now covered by at most one snapshot
+        flusher.execute(() -> {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                // The journal is still complete; the next roll tries again
+                e.printStackTrace();
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Group commit and snapshots
+
+    /**
+     * Forces everything appended so far to disk. Called by the flusher every flushIntervalMillis.
+     */
+    public void flush() {
+        MappedByteBuffer target;
+        long targetFirstSequence;
+        int from;
+        int to;
+        long upTo;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            target = segment;
+            targetFirstSequence = segmentFirstSequence;
+            from = flushedPosition;
+            to = position;
+            upTo = sequence;
+        } finally {
+            lock.unlock();
+        }
+        // The msyncs run outside the lock, so appends continue while the disk catches up
+        if (to == from) {
+            return;
+        }
+        target.force(from, to - from);
+        lock.lock();
+        try {
+            // Only now that the range is on disk, and under the lock: a roll(), close() or
+            // concurrent flush() may have got further meanwhile. If the msync threw, neither moves
+            // and the next flush forces the range again.
+            if (segment == target && to > flushedPosition) {
+                flushedPosition = to;
+            }
+            if (upTo > durableSequence) {
+                durableSequence = upTo;
+            }
+            markDurable(target, targetFirstSequence, upTo);
+        } finally {
+            lock.unlock();
+        }
+        target.force(0, HEADER_BYTES);
+    }
+
+    /**
+     * Writes the current balance as the new snapshot and deletes the segments it covers.
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long snapshotSequence;
+            long snapshotBalance;
+            long coveredBelow;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                snapshotSequence = sequence;
+                snapshotBalance = balanceCents;
+                coveredBelow = segmentFirstSequence;
+            } finally {
+                lock.unlock();
+            }
+            writeSnapshot(snapshotSequence, snapshotBalance);
+            for (Map.Entry<Long, Path> entry : segments().entrySet()) {
+                if (entry.getKey() < coveredBelow) {
+                    Files.delete(entry.getValue());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (!closed) {
+                markDurable(segment, segmentFirstSequence, sequence);
+                segment.force();
+                durableSequence = sequence;
+                closed = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            // Keep the periodic task alive; the next flush retries
+            e.printStackTrace();
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Recovery
+
+    private void recover(long initialCents) throws IOException {
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        TreeMap<Long, Path> segments = segments();
+        long last = 0;
+        long balance = initialCents;
+        if (Files.exists(snapshotFile)) {
+            ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+            last = snapshot.getLong();
+            balance = snapshot.getLong();
+            if (snapshot.getLong() != check(last, 0, balance)) {
+                throw new IOException("Corrupt snapshot " + snapshotFile);
+            }
+        } else if (segments.isEmpty()) {
+            writeSnapshot(0, initialCents);
+        } else {
+            throw new IOException("Journal without snapshot in " + directory);
+        }
+
+        long replayed = 0;
+        for (Map.Entry<Long, Path> entry : segments.entrySet()) {
+            Map.Entry<Long, Path> next = segments.higherEntry(entry.getKey());
+            if (next != null && next.getKey() <= last + 1) {
+                continue;  // covered by the snapshot; left behind by a crash before its deletion
+            }
+            if (entry.getKey() > last + 1) {
+                throw new IOException("Records " + (last + 1) + " to " + (entry.getKey() - 1) + " missing before "
+                        + entry.getValue());
+            }
+            try (FileChannel channel = FileChannel.open(entry.getValue(), StandardOpenOption.READ)) {
+                MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                long durable = durableSequence(records, entry.getKey(), entry.getValue());
+                // Record N of a segment has sequence number first + N, so skip those the snapshot covers
+                for (int at = HEADER_BYTES + (int) (last + 1 - entry.getKey()) * RECORD_BYTES;
+                        at <= records.limit() - RECORD_BYTES; at += RECORD_BYTES) {
+                    if (!isRecord(records, at, last + 1)) {
+                        if (last + 1 <= durable) {
+                            throw new IOException("Corrupt record " + (last + 1) + " in " + entry.getValue()
+                                    + ", which was on disk up to record " + durable);
+                        }
+                        break;  // torn tail, or the zeros after the last record
+                    }
+                    balance = records.getLong(at + 16);
+                    last++;
+                    replayed++;
+                }
+            }
+        }
+        balanceCents = balance;
+        sequence = last;
+        durableSequence = last;
+        replayedRecords = replayed;
+        openSegment(last + 1);
+    }
+
+    private static boolean isRecord(ByteBuffer records, int at, long seq) {
+        return records.getLong(at) == seq
+                && records.getLong(at + 24) == check(seq, records.getLong(at + 8), records.getLong(at + 16));
+    }
+
+    // The higher valid slot of the header; a slot is all zeros until first written, or torn
+    private static long durableSequence(ByteBuffer segment, long firstSequence, Path file) throws IOException {
+        if (segment.limit() < HEADER_BYTES) {
+            throw new IOException("Segment without header " + file);
+        }
+        long durable = firstSequence - 1;
+        for (int slot = 0; slot < HEADER_BYTES; slot += 16) {
+            long value = segment.getLong(slot);
+            if (value > durable && segment.getLong(slot + 8) == check(value, 0, firstSequence)) {
+                durable = value;
+            }
+        }
+        return durable;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Files
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path file = directory.resolve(SEGMENT_PREFIX + firstSequence + SEGMENT_SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // The mapping stays valid after the channel is closed
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+        segmentFirstSequence = firstSequence;
+        position = HEADER_BYTES;
+        flushedPosition = HEADER_BYTES;
+    }
+
+    // Called with lock held, once the records up to upTo are on disk; the caller forces the header
+    private static void markDurable(MappedByteBuffer target, long firstSequence, long upTo) {
+        long first = target.getLong(0);
+        long second = target.getLong(16);
+        if (upTo >= firstSequence && upTo > Math.max(first, second)) {
+            int slot = first <= second ? 0 : 16;
+            target.putLong(slot, upTo);
+            target.putLong(slot + 8, check(upTo, 0, firstSequence));
+        }
+    }
+
+    private void writeSnapshot(long snapshotSequence, long snapshotBalance) throws IOException {
+        Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        ByteBuffer buffer = ByteBuffer.allocate(24);
+        buffer.putLong(snapshotSequence).putLong(snapshotBalance).putLong(check(snapshotSequence, 0, snapshotBalance));
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private TreeMap<Long, Path> segments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String first = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                segments.put(Long.parseLong(first), file);
+            }
+        }
+        return segments;
+    }
+
+    // Never 0, so the zeros after the last record are never mistaken for one
+    private static long check(long seq, long delta, long balance) {
+        long h = seq * 0x9E3779B97F4A7C15L ^ delta * 0xC2B2AE3D27D4EB4FL ^ balance * 0x165667B19E3779F9L;
+        h ^= h >>> 29;
+        return h | 1;
+    }
+}
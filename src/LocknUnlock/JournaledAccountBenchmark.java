@@ -0,0 +1,81 @@
+package LocknUnlock;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+/**
+ * How fast JournaledAccount journals, and how fast it comes back after a restart.
+ *
+ * - append: N deposit/withdraw pairs with group commit every 10 ms, from 1 and 4 threads
+ * - fsync per operation (flushIntervalMillis = 0), for comparison, on far fewer operations
+ * - reopen: with snapshots (64 MB segments, so only the tail after the last one is replayed)
+ *   and without (one huge segment, everything is replayed); the balance must match
+ *
+ * Usage: java LocknUnlock.JournaledAccountBenchmark [operations]
+ */
+public class JournaledAccountBenchmark {
+
+    private static final long INITIAL_CENTS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+
+        run("group commit 10 ms, 1 thread ", operations, 1, 10, 64 << 20);
+        run("group commit 10 ms, 4 threads", operations, 4, 10, 64 << 20);
+        run("fsync per operation, 1 thread", 20_000, 1, 0, 64 << 20);
+        run("one segment, no snapshots    ", operations, 1, 10, Integer.MAX_VALUE);
+    }
+
+    private static void run(String name, int operations, int threads, long flushMillis, int segmentBytes)
+            throws Exception {
+        Path directory = Files.createTempDirectory("journaled-account");
+        try {
+            JournaledAccount account = JournaledAccount.open(directory, INITIAL_CENTS, flushMillis, segmentBytes);
+            long start = System.nanoTime();
+            hammer(account, operations, threads);
+            long appendNanos = System.nanoTime() - start;
+            long expected = account.getBalanceCents();
+            account.close();
+
+            start = System.nanoTime();
+            JournaledAccount reopened = JournaledAccount.open(directory, INITIAL_CENTS, flushMillis, segmentBytes);
+            long replayNanos = System.nanoTime() - start;
+            System.out.printf("%s: %,12.0f ops/s | reopen %5d ms, %,d records replayed, balance %s%n", name,
+                    operations / (appendNanos / 1e9), replayNanos / 1_000_000, reopened.replayedRecords(),
+                    reopened.getBalanceCents() == expected ? "ok" : "WRONG (" + reopened.getBalanceCents() + ")");
+            reopened.close();
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    private static void hammer(JournaledAccount account, int operations, int threads) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int share = operations / threads / 2;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < share; i++) {
+                    account.depositCents(100);
+                    account.withdrawCents(50);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package LocknUnlock;
 
+import Counters.Counter;
+import Counters.StripedCounter;
+
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -7,8 +10,8 @@ public class LockExampleWithReentrantLock {
     // Shared resource
     private int counter = 0;
 
-    // Lock to control access to the shared resource
-    private final Lock lock = new ReentrantLock();
+    // Lock to control access to the shared resource (profiled when run with -Dlock.profiling=true)
+    private final Lock lock = LockProfiler.lock("LockExampleWithReentrantLock", new ReentrantLock());
 
     // Method to increment the counter safely
     public void increment() {
@@ -24,6 +27,15 @@ public class LockExampleWithReentrantLock {
         }
     }
 
+    // The same count without the lock: each thread adds to its own padded cell (Counters.StripedCounter),
+    // so threads on different cores never queue for it. sum() reads every cell, so it is read once at the end.
+    private final Counter stripedCounter = new StripedCounter();
+
+    public void incrementWithoutLock() {
+        stripedCounter.increment();
+        System.out.println(Thread.currentThread().getName() + " incremented striped counter");
+    }
+
     public static void main(String[] args) {
         LockExampleWithReentrantLock example = new LockExampleWithReentrantLock();
 
@@ -32,9 +44,27 @@ public class LockExampleWithReentrantLock {
         Thread t2 = new Thread(example::increment, "Thread-2");
         Thread t3 = new Thread(example::increment, "Thread-3");
 
+        // And three that use the striped counter instead
+        Thread t4 = new Thread(example::incrementWithoutLock, "Thread-4");
+        Thread t5 = new Thread(example::incrementWithoutLock, "Thread-5");
+        Thread t6 = new Thread(example::incrementWithoutLock, "Thread-6");
+
         // Start the threads
         t1.start();
         t2.start();
         t3.start();
+        t4.start();
+        t5.start();
+        t6.start();
+
+        // The striped count is only exact once the increments have stopped
+        try {
+            t4.join();
+            t5.join();
+            t6.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        System.out.println("Final striped counter value: " + example.stripedCounter.sum());
     }
 }
\ No newline at end of file
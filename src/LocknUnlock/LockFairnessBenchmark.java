@@ -0,0 +1,167 @@
+package LocknUnlock;
+
+import ExecutorService.ScheduledThreadPool.LatencyHistogram;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * What new ReentrantLock(true) really costs compared with new ReentrantLock(false) and
+ * synchronized, on FairAndUnfairLockExample's counter++ with a critical section of 0, 1 and 10
+ * microseconds of extra work, at 2..64 threads.
+ *
+ * JMH is not available in this project, so this is a plain harness: a warm-up pass, then a fixed
+ * measuring window per configuration. For every configuration it prints
+ * - throughput:   increments per second, all threads together
+ * - wait p50/p99: time from calling lock() until holding the lock, per acquire
+ * - worst wait:   the longest single wait any thread saw (starvation)
+ * - min/max:      increments of the least served thread divided by the best served one
+ *
+ * The example's own increment methods print every value; the measured paths leave the println
+ * out so the console does not turn every lock into the same bottleneck. run() is reused by
+ * AdaptiveSpinLockBenchmark.
+ */
+public class LockFairnessBenchmark {
+
+    private static final int[] THREAD_COUNTS = {2, 4, 8, 16, 32, 64};
+    private static final long[] CRITICAL_SECTION_NANOS = {0, 1_000, 10_000};
+    private static final long MEASURE_MILLIS = 300;
+
+    private enum Kind { FAIR, UNFAIR, SYNCHRONIZED }
+
+    private static Supplier<Lock> locksOf(Kind kind) {
+        switch (kind) {
+            case FAIR: return () -> new ReentrantLock(true);
+            case UNFAIR: return () -> new ReentrantLock(false);
+            default: return () -> null;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%d CPUs, %d ms per configuration%n", Runtime.getRuntime().availableProcessors(), MEASURE_MILLIS);
+        for (Kind kind : Kind.values()) {
+            run(locksOf(kind), 8, 0);  // warm-up
+        }
+        for (long criticalSection : CRITICAL_SECTION_NANOS) {
+            System.out.printf("%nCritical section: counter++ plus %d us of work%n", criticalSection / 1000);
+            System.out.printf("%-8s %-13s %12s %10s %10s %12s %8s%n",
+                    "threads", "lock", "M incr/s", "p50 us", "p99 us", "worst ms", "min/max");
+            for (int threads : THREAD_COUNTS) {
+                for (Kind kind : Kind.values()) {
+                    Result result = run(locksOf(kind), threads, criticalSection);
+                    System.out.printf("%-8d %-13s %12.3f %10.1f %10.1f %12.1f %8.2f%n", threads, kind.name().toLowerCase(),
+                            result.perSecond / 1e6, result.waits.percentileNanos(0.50) / 1e3,
+                            result.waits.percentileNanos(0.99) / 1e3, result.waits.maxNanos() / 1e6, result.minMaxRatio);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the counter under a fresh lock from {@code locks}; a null lock means synchronized.
+     */
+    static Result run(Supplier<Lock> locks, int threads, long criticalSectionNanos) throws InterruptedException {
+        Counter counter = new Counter(locks.get());
+        LatencyHistogram[] waits = new LatencyHistogram[threads];
+        long[] increments = new long[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            waits[t] = new LatencyHistogram();
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                LatencyHistogram myWaits = waits[index];
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MEASURE_MILLIS);
+                long done = 0;
+                long now;
+                do {
+                    long before = System.nanoTime();
+                    counter.increment(criticalSectionNanos, before, myWaits);
+                    done++;
+                    now = System.nanoTime();
+                } while (now < end);
+                increments[index] = done;
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        LatencyHistogram allWaits = new LatencyHistogram();
+        long total = 0;
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (int t = 0; t < threads; t++) {
+            allWaits.add(waits[t]);
+            total += increments[t];
+            min = Math.min(min, increments[t]);
+            max = Math.max(max, increments[t]);
+        }
+        if (counter.value != total) {
+            throw new IllegalStateException("Lost increments: " + counter.value + " != " + total);
+        }
+        return new Result(total * 1e9 / elapsed, allWaits, max == 0 ? 1 : (double) min / max);
+    }
+
+    // FairAndUnfairLockExample's counter, minus the println, with a configurable amount of work
+    private static final class Counter {
+        private final Lock lock;
+        private long value;
+
+        Counter(Lock lock) {
+            this.lock = lock;
+        }
+
+        void increment(long workNanos, long calledAt, LatencyHistogram waits) {
+            if (lock == null) {
+                synchronized (this) {
+                    waits.record(System.nanoTime() - calledAt);
+                    value++;
+                    work(workNanos);
+                }
+            } else {
+                lock.lock();
+                try {
+                    waits.record(System.nanoTime() - calledAt);
+                    value++;
+                    work(workNanos);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private static void work(long nanos) {
+            if (nanos > 0) {
+                long end = System.nanoTime() + nanos;
+                while (System.nanoTime() < end) {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+    }
+
+    static final class Result {
+        final double perSecond;
+        final LatencyHistogram waits;
+        final double minMaxRatio;
+
+        Result(double perSecond, LatencyHistogram waits, double minMaxRatio) {
+            this.perSecond = perSecond;
+            this.waits = waits;
+            this.minMaxRatio = minMaxRatio;
+        }
+    }
+}
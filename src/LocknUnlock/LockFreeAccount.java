@@ -0,0 +1,83 @@
+package LocknUnlock;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Account without any lock: the balance is a long number of cents updated with CAS.
+ *
+ * ReadWriteLocksWithReentrant keeps a double, so 0.1 + 0.2 drifts away from 0.3 over enough
+ * operations, and every deposit or withdrawal queues on the write lock. Here:
+ * - deposit is a single atomic add
+ * - withdraw reads the balance, refuses if it would go negative, and tries to CAS in the new
+ *   value; if another thread changed the balance meanwhile the CAS fails and it tries again with
+ *   the fresh value. The non-negative check is therefore always made against the value that the
+ *   CAS actually replaces.
+ * - getBalance is a volatile read
+ *
+ * The balance is a plain volatile field updated through a VarHandle rather than an AtomicLong, so
+ * millions of accounts cost no extra object each. For the same reason the CAS retry count is one
+ * diagnostic shared by all accounts, not a counter per account.
+ */
+public class LockFreeAccount extends CentsAccount {
+
+    private static final VarHandle BALANCE;
+    // Failed CAS attempts in withdraw, all accounts together; only touched when there was contention
+    private static final LongAdder CAS_RETRIES = new LongAdder();
+
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(LockFreeAccount.class, "balanceCents", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long balanceCents;
+
+    public LockFreeAccount(long initialCents) {
+        this.balanceCents = initialCents;
+    }
+
+    @Override
+    public long getBalanceCents() {
+        return balanceCents;
+    }
+
+    @Override
+    public long depositCents(long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Deposit must be positive: " + cents);
+        }
+        return (long) BALANCE.getAndAdd(this, cents) + cents;
+    }
+
+    @Override
+    public long withdrawCents(long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Withdrawal must be positive: " + cents);
+        }
+        long current = balanceCents;
+        while (true) {
+            if (current < cents) {
+                return -1;
+            }
+            long witness = (long) BALANCE.compareAndExchange(this, current, current - cents);
+            if (witness == current) {
+                return current - cents;
+            }
+            // Someone else got in first; retry against the value they left
+            CAS_RETRIES.increment();
+            current = witness;
+        }
+    }
+
+    /**
+     * Failed CAS attempts in withdraw so far, summed over every LockFreeAccount.
+     */
+    public static long getCasRetries() {
+        return CAS_RETRIES.sum();
+    }
+
+}
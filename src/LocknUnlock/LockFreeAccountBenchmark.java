@@ -0,0 +1,138 @@
+package LocknUnlock;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Write-only contention on one account: every thread alternates deposit(1.0) and withdraw(1.0)
+ * as fast as it can, against ReadWriteLocksWithReentrant (write lock) and LockFreeAccount (CAS).
+ *
+ * Prints operations per second and how evenly they were spread over the threads (Jain's index
+ * and least/most served thread). A CAS loop has no queue, so in principle one thread can keep
+ * losing; the fairness columns show whether that happens in practice.
+ *
+ * Run twice: through the Account API, where both build the same console message per write, and
+ * without the messages, which isolates the cost of the write lock against the CAS.
+ *
+ * Before that, a precision check: 1,000,000 deposits of 0.10 into an empty account.
+ */
+public class LockFreeAccountBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+    private static final long MEASURE_MILLIS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        precision();
+
+        System.out.println("Account API, messages built on every write as in ReadWriteLocksWithReentrant:");
+        compare(() -> new ReadWriteLocksWithReentrant(1_000_000), LockFreeAccount::new);
+        System.out.println();
+        System.out.println("Same operations without the messages (long cents under the write lock vs CAS):");
+        compare(() -> new QuietLockedAccount(100_000_000), QuietLockFreeAccount::new);
+    }
+
+    private static void compare(Supplier<Account> lockBased, Function<Long, Account> lockFree)
+            throws InterruptedException {
+        AccountBenchmark.measure(lockBased, 4, 100, MEASURE_MILLIS);  // warm-up
+        AccountBenchmark.measure(() -> lockFree.apply(100_000_000L), 4, 100, MEASURE_MILLIS);
+        System.out.printf("%-8s %34s %34s%n", "threads", "write lock (M ops/s, Jain, min/max)", "CAS (M ops/s, Jain, min/max)");
+        for (int threads : THREAD_COUNTS) {
+            AccountBenchmark.Result locked = AccountBenchmark.measure(lockBased, threads, 100, MEASURE_MILLIS);
+            long retriesBefore = LockFreeAccount.getCasRetries();
+            AccountBenchmark.Result cas = AccountBenchmark.measure(() -> lockFree.apply(100_000_000L),
+                    threads, 100, MEASURE_MILLIS);
+            long retries = LockFreeAccount.getCasRetries() - retriesBefore;
+            System.out.printf("%-8d %20.2f %6.3f %6.2f %20.2f %6.3f %6.2f   (CAS retries: %d)%n", threads,
+                    locked.opsPerSecond() / 1e6, locked.fairness(), locked.minMaxRatio(),
+                    cas.opsPerSecond() / 1e6, cas.fairness(), cas.minMaxRatio(), retries);
+        }
+    }
+
+    private static void precision() {
+        ReadWriteLocksWithReentrant doubles = new ReadWriteLocksWithReentrant(0);
+        LockFreeAccount cents = new LockFreeAccount(0);
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int i = 0; i < 1_000_000; i++) {
+                doubles.deposit(0.10);
+                cents.deposit(0.10);
+            }
+        } finally {
+            System.setOut(console);
+        }
+        System.out.println("1,000,000 x deposit(0.10), expected 100000.0:");
+        System.out.println("  double balance:     " + doubles.getBalance());
+        System.out.println("  long cents balance: " + cents.getBalance());
+        System.out.println();
+    }
+
+    // ReadWriteLocksWithReentrant's locking around a long, without the println
+    private static final class QuietLockedAccount implements Account {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private long balanceCents;
+
+        QuietLockedAccount(long initialCents) {
+            this.balanceCents = initialCents;
+        }
+
+        @Override
+        public double getBalance() {
+            lock.readLock().lock();
+            try {
+                return balanceCents / 100.0;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void deposit(double amount) {
+            lock.writeLock().lock();
+            try {
+                balanceCents += Math.round(amount * 100);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void withdraw(double amount) {
+            long cents = Math.round(amount * 100);
+            lock.writeLock().lock();
+            try {
+                if (cents <= balanceCents) {
+                    balanceCents -= cents;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static final class QuietLockFreeAccount implements Account {
+        private final LockFreeAccount account;
+
+        QuietLockFreeAccount(long initialCents) {
+            this.account = new LockFreeAccount(initialCents);
+        }
+
+        @Override
+        public double getBalance() {
+            return account.getBalanceCents() / 100.0;
+        }
+
+        @Override
+        public void deposit(double amount) {
+            account.depositCents(Math.round(amount * 100));
+        }
+
+        @Override
+        public void withdraw(double amount) {
+            account.withdrawCents(Math.round(amount * 100));
+        }
+    }
+}
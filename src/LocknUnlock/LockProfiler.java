@@ -0,0 +1,67 @@
+package LocknUnlock;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Registry of profiled locks, keyed by name.
+ *
+ * lock()/readWriteLock() return the lock unchanged unless the JVM was started with
+ * -Dlock.profiling=true, so the wrapping can stay in the code and be switched on for one node.
+ * When it is on, the statistics of every profiled lock are printed at JVM exit; dump() prints
+ * them on demand. Locks created under the same name share one LockStats.
+ *
+ * wrap()/wrapReadWriteLock() always profile, whatever the property says.
+ */
+public final class LockProfiler {
+
+    public static final boolean ENABLED = Boolean.getBoolean("lock.profiling");
+
+    private static final Map<String, LockStats> STATS = new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(System.err), "lock-profiler-dump"));
+        }
+    }
+
+    private LockProfiler() {
+    }
+
+    public static Lock lock(String name, Lock lock) {
+        return ENABLED ? wrap(name, lock) : lock;
+    }
+
+    public static ReadWriteLock readWriteLock(String name, ReadWriteLock lock) {
+        return ENABLED ? wrapReadWriteLock(name, lock) : lock;
+    }
+
+    public static ProfiledLock wrap(String name, Lock lock) {
+        return new ProfiledLock(lock, statsFor(name));
+    }
+
+    public static ProfiledReadWriteLock wrapReadWriteLock(String name, ReadWriteLock lock) {
+        return new ProfiledReadWriteLock(lock, statsFor(name + ".read"), statsFor(name + ".write"));
+    }
+
+    public static LockStats stats(String name) {
+        return STATS.get(name);
+    }
+
+    public static void dump(PrintStream out) {
+        List<LockStats> all = new ArrayList<>(STATS.values());
+        all.sort((a, b) -> a.getName().compareTo(b.getName()));
+        for (LockStats stats : all) {
+            out.println(stats.report());
+        }
+    }
+
+    private static LockStats statsFor(String name) {
+        return STATS.computeIfAbsent(name, LockStats::new);
+    }
+}
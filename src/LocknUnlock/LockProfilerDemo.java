@@ -0,0 +1,78 @@
+package LocknUnlock;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the three lock examples with 8 threads each and profiling switched on, then dumps the
+ * per-lock statistics (LockProfiler prints them at exit). Also measures what the wrapper costs on an uncontended lock()/unlock().
+ *
+ * Same as running the examples with -Dlock.profiling=true, except the property is set here.
+ */
+public class LockProfilerDemo {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 5_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        // Must happen before LockProfiler is initialised, i.e. before the first example is created
+        System.setProperty("lock.profiling", "true");
+
+        LockExampleWithReentrantLock counter = new LockExampleWithReentrantLock();
+        FairAndUnfairLockExample fairAndUnfair = new FairAndUnfairLockExample();
+        ReadWriteLocksWithReentrant account = new ReadWriteLocksWithReentrant(1_000_000);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            runThreads(counter::increment);
+            runThreads(fairAndUnfair::incrementWithFairLock);
+            runThreads(fairAndUnfair::incrementWithUnfairLock);
+            runThreads(() -> {
+                for (int i = 0; i < 20; i++) {
+                    account.getBalance();
+                }
+                account.deposit(1);
+                account.withdraw(1);
+            });
+        } finally {
+            System.setOut(console);
+        }
+
+        System.out.printf("uncontended lock()+unlock(): plain %.1f ns, profiled %.1f ns%n",
+                uncontendedNanos(new ReentrantLock()), uncontendedNanos(LockProfiler.wrap("overhead-check", new ReentrantLock())));
+        System.out.println("Lock statistics, printed by LockProfiler at exit:");
+    }
+
+    private static void runThreads(Runnable operation) throws InterruptedException {
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < OPERATIONS; i++) {
+                    operation.run();
+                }
+            }, "Thread-" + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static double uncontendedNanos(Lock lock) {
+        int iterations = 20_000_000;
+        for (int round = 0; round < 2; round++) {  // first round is warm-up
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                lock.lock();
+                lock.unlock();
+            }
+            if (round == 1) {
+                return (double) (System.nanoTime() - start) / iterations;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,86 @@
+package LocknUnlock;
+
+import ExecutorService.ScheduledThreadPool.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contention numbers for one profiled lock (see ProfiledLock).
+ *
+ * - wait:    time from calling lock() until it returned, for contended acquires only (an
+ *            uncontended acquire waits for nothing and would only dilute the percentiles)
+ * - hold:    time from the outermost lock() to the matching unlock(), sampled
+ * - queue:   how many threads were blocked on this lock, including the arriving one, each time
+ *            a thread had to wait
+ */
+public class LockStats {
+
+    private final String name;
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram holdTime = new LatencyHistogram();
+    private final QueueLengthHistogram queueLength = new QueueLengthHistogram();
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder contendedAcquires = new LongAdder();
+    private final LongAdder failedTryLocks = new LongAdder();
+    final AtomicInteger waiting = new AtomicInteger();
+
+    LockStats(String name) {
+        this.name = name;
+    }
+
+    void recordUncontended() {
+        acquires.increment();
+    }
+
+    void recordContended(long waitNanos, int queued) {
+        acquires.increment();
+        contendedAcquires.increment();
+        waitTime.record(waitNanos);
+        queueLength.record(queued);
+    }
+
+    void recordFailedTryLock() {
+        failedTryLocks.increment();
+    }
+
+    void recordHold(long holdNanos) {
+        holdTime.record(holdNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAcquires() {
+        return acquires.sum();
+    }
+
+    public double getContendedRatio() {
+        long total = acquires.sum();
+        return total == 0 ? 0 : (double) contendedAcquires.sum() / total;
+    }
+
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    public LatencyHistogram getHoldTime() {
+        return holdTime;
+    }
+
+    public QueueLengthHistogram getQueueLength() {
+        return queueLength;
+    }
+
+    public String report() {
+        return String.format("%s: %d acquires, %.1f%% contended, %d failed tryLock%n"
+                        + "  wait:  %s%n"
+                        + "  hold:  %s%n"
+                        + "  queue: %s",
+                name, acquires.sum(), 100 * getContendedRatio(), failedTryLocks.sum(),
+                waitTime.summary(TimeUnit.MICROSECONDS), holdTime.summary(TimeUnit.MICROSECONDS),
+                queueLength.summary());
+    }
+}
@@ -0,0 +1,317 @@
+package LocknUnlock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multi-version ledger: consistent reports across all accounts without stopping the writers.
+ *
+ * Summing StripedLedger (or per-account ReadWriteLocksWithReentrant) consistently means holding
+ * every lock while adding up, so every deposit waits for the report. Here every account keeps a
+ * short chain of versions, newest first, each tagged with the commit timestamp that created it:
+ *
+ * Writers
+ * - lock the stripes they touch (ascending order, as in StripedLedger) and compute the new
+ *   balances; writers only ever wait for other writers
+ * - commit: under commitLock take the next timestamp, push the new versions onto the accounts'
+ *   chains and publish the timestamp in visibleTs. The section is a handful of stores, so it stays
+ *   short even though every writer passes through it, and a transfer's two new versions become
+ *   visible at the same instant.
+ *
+ * Readers
+ * - snapshot() registers visibleTs as its read timestamp; balance(account) walks the chain to the
+ *   newest version not newer than that. No locks, no waiting, and the sum over all accounts is the
+ *   state as of one commit.
+ *
+ * Garbage collection (collectGarbage(), or startGarbageCollector() in the background)
+ * - the horizon is the oldest registered snapshot, or visibleTs if there is none; per account
+ *   the newest version at or below the horizon is kept and everything older is cut off
+ * - a snapshot that registers while the collector runs re-checks the published horizon and moves
+ *   its timestamp forward if it fell behind, so it never reads a version that was cut off
+ *
+ * Amounts are in cents; withdrawals and transfers that would make a balance negative are refused.
+ */
+public class MvccLedger {
+
+    private final AtomicReferenceArray<Version> heads;
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+    private final ReentrantLock commitLock = new ReentrantLock();
+    private final AtomicLong visibleTs = new AtomicLong();
+    private volatile long gcHorizon;
+    private final Map<Snapshot, Boolean> openSnapshots = new ConcurrentHashMap<>();
+    private ScheduledExecutorService collector;
+
+    public MvccLedger(int accounts, int stripeCount, long initialCents) {
+        if (accounts <= 0 || stripeCount <= 0) {
+            throw new IllegalArgumentException("accounts and stripeCount must be positive");
+        }
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.heads = new AtomicReferenceArray<>(accounts);
+        this.stripes = new ReentrantLock[size];
+        this.stripeMask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        Version initial = new Version(initialCents, 0, null);
+        for (int i = 0; i < accounts; i++) {
+            heads.set(i, initial);
+        }
+    }
+
+    public int size() {
+        return heads.length();
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Writers
+
+    public void deposit(int account, long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Deposit must be positive: " + cents);
+        }
+        ReentrantLock lock = stripes[stripeOf(account)];
+        lock.lock();
+        try {
+            commit(account, heads.get(account).cents + cents, -1, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return false (and no change) if the account holds less than {@code cents}
+     */
+    public boolean withdraw(int account, long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Withdrawal must be positive: " + cents);
+        }
+        ReentrantLock lock = stripes[stripeOf(account)];
+        lock.lock();
+        try {
+            long balance = heads.get(account).cents;
+            if (balance < cents) {
+                return false;
+            }
+            commit(account, balance - cents, -1, 0);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves {@code cents} between two accounts; both new balances become visible together.
+     *
+     * @return false (and no change) if {@code from} holds less than {@code cents}
+     */
+    public boolean transfer(int from, int to, long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Transfer must be positive: " + cents);
+        }
+        if (from == to) {
+            return getBalance(from) >= cents;
+        }
+        int fromStripe = stripeOf(from);
+        int toStripe = stripeOf(to);
+        ReentrantLock first = stripes[Math.min(fromStripe, toStripe)];
+        ReentrantLock second = stripes[Math.max(fromStripe, toStripe)];
+        first.lock();
+        try {
+            if (second != first) {
+                second.lock();
+            }
+            try {
+                // Under the stripe locks nobody else can push onto these two chains
+                long fromBalance = heads.get(from).cents;
+                if (fromBalance < cents) {
+                    return false;
+                }
+                commit(from, fromBalance - cents, to, heads.get(to).cents + cents);
+                return true;
+            } finally {
+                if (second != first) {
+                    second.unlock();
+                }
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    // Caller holds the stripe locks of both accounts; second == -1 for single-account writes
+    private void commit(int first, long firstCents, int second, long secondCents) {
+        commitLock.lock();
+        try {
+            long ts = visibleTs.get() + 1;
+            heads.set(first, new Version(firstCents, ts, heads.get(first)));
+            if (second >= 0) {
+                heads.set(second, new Version(secondCents, ts, heads.get(second)));
+            }
+            visibleTs.set(ts);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Readers
+
+    /**
+     * Latest committed balance of one account; never blocks.
+     */
+    public long getBalance(int account) {
+        while (true) {
+            Version version = versionAt(account, visibleTs.get());
+            if (version != null) {
+                return version.cents;
+            }
+            // The collector cut the chain below an unregistered read; read a newer state
+        }
+    }
+
+    /**
+     * A consistent, read-only view of all accounts as of the latest commit. Close it when done,
+     * otherwise the versions it can see are never collected.
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot(visibleTs.get());
+        openSnapshots.put(snapshot, Boolean.TRUE);
+        // A collector that missed our registration may already cut above our timestamp
+        long horizon;
+        while ((horizon = gcHorizon) > snapshot.ts) {
+            snapshot.ts = Math.max(horizon, visibleTs.get());
+        }
+        return snapshot;
+    }
+
+    public long commitCount() {
+        return visibleTs.get();
+    }
+
+    private Version versionAt(int account, long ts) {
+        Version version = heads.get(account);
+        while (version != null && version.ts > ts) {
+            version = version.previous;
+        }
+        return version;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Garbage collection
+
+    /**
+     * Cuts off every version no open snapshot can see any more.
+     *
+     * @return the horizon used: versions older than the newest one at or below it are gone
+     */
+    public synchronized long collectGarbage() {
+        long horizon = oldestOpenSnapshot(visibleTs.get());
+        // Never lowered: a snapshot that picked its timestamp before an earlier run cut above it,
+        // and registered only now, must still find that cut in gcHorizon and move up past it
+        gcHorizon = Math.max(gcHorizon, horizon);
+        // A snapshot registered after the first scan either appears now, or will see gcHorizon
+        horizon = oldestOpenSnapshot(horizon);
+        for (int i = 0; i < heads.length(); i++) {
+            Version keep = versionAt(i, horizon);
+            if (keep != null && keep.previous != null) {
+                keep.previous = null;
+            }
+        }
+        return horizon;
+    }
+
+    public synchronized void startGarbageCollector(long period, TimeUnit unit) {
+        if (collector == null) {
+            collector = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "mvcc-gc");
+                thread.setDaemon(true);
+                return thread;
+            });
+            collector.scheduleWithFixedDelay(this::collectGarbage, period, period, unit);
+        }
+    }
+
+    public synchronized void stopGarbageCollector() {
+        if (collector != null) {
+            collector.shutdown();
+            collector = null;
+        }
+    }
+
+    /**
+     * Number of versions currently reachable, over all accounts (walks every chain).
+     */
+    public long versionCount() {
+        long count = 0;
+        for (int i = 0; i < heads.length(); i++) {
+            for (Version version = heads.get(i); version != null; version = version.previous) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long oldestOpenSnapshot(long atMost) {
+        long oldest = atMost;
+        for (Snapshot snapshot : openSnapshots.keySet()) {
+            oldest = Math.min(oldest, snapshot.ts);
+        }
+        return oldest;
+    }
+
+    private int stripeOf(int account) {
+        return (int) ((account * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+    }
+
+    private static final class Version {
+        final long cents;
+        final long ts;
+        // Cut to null by the collector once no snapshot needs the older versions
+        volatile Version previous;
+
+        Version(long cents, long ts, Version previous) {
+            this.cents = cents;
+            this.ts = ts;
+            this.previous = previous;
+        }
+    }
+
+    public final class Snapshot implements AutoCloseable {
+        private volatile long ts;
+
+        private Snapshot(long ts) {
+            this.ts = ts;
+        }
+
+        public long timestamp() {
+            return ts;
+        }
+
+        public long balance(int account) {
+            return versionAt(account, ts).cents;
+        }
+
+        public long totalCents() {
+            long total = 0;
+            for (int i = 0; i < heads.length(); i++) {
+                total += versionAt(i, ts).cents;
+            }
+            return total;
+        }
+
+        @Override
+        public void close() {
+            openSnapshots.remove(this);
+        }
+    }
+}
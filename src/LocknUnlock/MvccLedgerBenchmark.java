@@ -0,0 +1,152 @@
+package LocknUnlock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Writers doing random transfers while one reporter keeps summing all balances, on
+ * StripedLedger (totalCents() holds every stripe) and on MvccLedger (snapshot().totalCents()).
+ *
+ * Prints transfers per second with and without the reporter running, reports per second, and
+ * how many reports did not add up to the money in the ledger (must be 0 for both: the striped
+ * total is consistent because it stops everyone, the MVCC total because it reads one commit).
+ * For MvccLedger it also shows how many versions the background collector left behind.
+ */
+public class MvccLedgerBenchmark {
+
+    private static final int ACCOUNTS = 100_000;
+    private static final int STRIPES = 256;
+    private static final long INITIAL_CENTS = 10_000;
+    private static final long EXPECTED_TOTAL = ACCOUNTS * INITIAL_CENTS;
+    private static final int[] THREAD_COUNTS = {1, 4, 16};
+    private static final long MEASURE_MILLIS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("%d accounts, %d stripes, %d CPUs; transfers/s in M%n", ACCOUNTS, STRIPES,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %-8s %12s %14s %10s %8s %10s%n",
+                "ledger", "writers", "no reports", "with reports", "reports/s", "wrong", "versions");
+
+        runStriped(4, false);  // warm-up
+        runMvcc(4, false);
+        for (int threads : THREAD_COUNTS) {
+            runStriped(threads, true);
+            runMvcc(threads, true);
+        }
+    }
+
+    private static void runStriped(int threads, boolean print) throws InterruptedException {
+        StripedLedger quiet = new StripedLedger(ACCOUNTS, STRIPES, INITIAL_CENTS);
+        Result alone = measure(quiet::transfer, threads, null);
+        StripedLedger ledger = new StripedLedger(ACCOUNTS, STRIPES, INITIAL_CENTS);
+        Result reported = measure(ledger::transfer, threads, ledger::totalCents);
+        if (print) {
+            print("striped", threads, alone, reported, "-");
+        }
+    }
+
+    private static void runMvcc(int threads, boolean print) throws InterruptedException {
+        MvccLedger quiet = new MvccLedger(ACCOUNTS, STRIPES, INITIAL_CENTS);
+        quiet.startGarbageCollector(50, TimeUnit.MILLISECONDS);
+        Result alone = measure(quiet::transfer, threads, null);
+        quiet.stopGarbageCollector();
+
+        MvccLedger ledger = new MvccLedger(ACCOUNTS, STRIPES, INITIAL_CENTS);
+        ledger.startGarbageCollector(50, TimeUnit.MILLISECONDS);
+        Result reported = measure(ledger::transfer, threads, () -> {
+            try (MvccLedger.Snapshot snapshot = ledger.snapshot()) {
+                return snapshot.totalCents();
+            }
+        });
+        ledger.stopGarbageCollector();
+        long before = ledger.versionCount();
+        ledger.collectGarbage();
+        if (print) {
+            print("mvcc", threads, alone, reported, before + "->" + ledger.versionCount());
+        }
+    }
+
+    private static void print(String name, int threads, Result alone, Result reported, String versions) {
+        System.out.printf("%-8s %-8d %12.2f %14.2f %10.1f %8d %10s%n", name, threads, alone.transfersPerSecond / 1e6,
+                reported.transfersPerSecond / 1e6, reported.reportsPerSecond, reported.wrongReports, versions);
+    }
+
+    private interface Transfer {
+        boolean transfer(int from, int to, long cents);
+    }
+
+    private static final class Result {
+        double transfersPerSecond;
+        double reportsPerSecond;
+        long wrongReports;
+    }
+
+    private static Result measure(Transfer ledger, int threads, LongSupplier report) throws InterruptedException {
+        long[] transfers = new long[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long done = 0;
+                do {
+                    for (int i = 0; i < 256; i++) {
+                        ledger.transfer(random.nextInt(ACCOUNTS), random.nextInt(ACCOUNTS), 1 + random.nextInt(100));
+                    }
+                    done += 256;
+                } while (running.get());
+                transfers[index] = done;
+            });
+            workers[t].start();
+        }
+
+        Result result = new Result();
+        long[] reports = new long[1];
+        Thread reporter = null;
+        if (report != null) {
+            reporter = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while (running.get()) {
+                    if (report.getAsLong() != EXPECTED_TOTAL) {
+                        result.wrongReports++;
+                    }
+                    reports[0]++;
+                }
+            });
+            reporter.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(MEASURE_MILLIS);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        if (reporter != null) {
+            reporter.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        long total = 0;
+        for (long count : transfers) {
+            total += count;
+        }
+        result.transfersPerSecond = total * 1e9 / elapsed;
+        result.reportsPerSecond = reports[0] * 1e9 / elapsed;
+        return result;
+    }
+}
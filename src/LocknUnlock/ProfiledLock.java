@@ -0,0 +1,195 @@
+package LocknUnlock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Lock decorator that feeds a LockStats with wait time, hold time, contention and queue length.
+ *
+ * Acquire path:
+ * - non-fair locks: a tryLock() first. If it succeeds the acquire was uncontended and costs one
+ *   extra ThreadLocal access; only a failed tryLock() reads the clock and bumps the counters.
+ * - fair locks: tryLock() would barge past the queue and change the lock's behaviour, so every
+ *   acquire goes through the timed path; it counts as contended when other threads were already
+ *   waiting or the wait took longer than CONTENDED_NANOS.
+ * - read locks: ReadLock.tryLock() ignores waiting writers, so the fast path is only taken while
+ *   the ReentrantReadWriteLock has no queued threads; otherwise a stream of readers could starve
+ *   writers only when profiling is on. Read locks of other ReadWriteLocks always take the timed
+ *   path. Either way a read counts as contended only by wait time, since readers share the lock.
+ *
+ * Hold time is measured from the outermost lock() to the matching unlock() of the same thread
+ * (nested reentrant holds are not counted twice), for one in HOLD_SAMPLE_EVERY holds per thread:
+ * reading the clock twice on every uncontended acquire would cost more than the lock itself.
+ * Time spent in Condition.await() counts as held.
+ */
+public class ProfiledLock implements Lock {
+
+    // A fair lock handed over to us faster than this was not really contended
+    private static final long CONTENDED_NANOS = 2_000;
+    private static final int HOLD_SAMPLE_EVERY = 16;
+
+    private final Lock delegate;
+    private final LockStats stats;
+    // Never acquire through the barging tryLock(): fair locks, and read locks of unknown kind
+    private final boolean queuedOnly;
+    // Set when delegate is this lock's read lock: tryLock() only while nobody is queued
+    private final ReentrantReadWriteLock readLockOf;
+    private final boolean shared;
+    private final ThreadLocal<Hold> holds = ThreadLocal.withInitial(Hold::new);
+
+    private ProfiledLock(Lock delegate, LockStats stats, boolean queuedOnly, ReentrantReadWriteLock readLockOf,
+                         boolean shared) {
+        this.delegate = delegate;
+        this.stats = stats;
+        this.queuedOnly = queuedOnly;
+        this.readLockOf = readLockOf;
+        this.shared = shared;
+    }
+
+    ProfiledLock(Lock delegate, LockStats stats) {
+        this(delegate, stats, delegate instanceof ReentrantLock && ((ReentrantLock) delegate).isFair(), null, false);
+    }
+
+    static ProfiledLock forWriteLock(ReadWriteLock delegate, LockStats stats) {
+        return new ProfiledLock(delegate.writeLock(), stats, isFair(delegate), null, false);
+    }
+
+    static ProfiledLock forReadLock(ReadWriteLock delegate, LockStats stats) {
+        if (delegate instanceof ReentrantReadWriteLock) {
+            ReentrantReadWriteLock rrwl = (ReentrantReadWriteLock) delegate;
+            return new ProfiledLock(rrwl.readLock(), stats, rrwl.isFair(), rrwl, true);
+        }
+        return new ProfiledLock(delegate.readLock(), stats, true, null, true);
+    }
+
+    private static boolean isFair(ReadWriteLock lock) {
+        return lock instanceof ReentrantReadWriteLock && ((ReentrantReadWriteLock) lock).isFair();
+    }
+
+    public LockStats getStats() {
+        return stats;
+    }
+
+    // Uncontended fast path, where it cannot change who gets the lock
+    private boolean tryBarge() {
+        return !queuedOnly && (readLockOf == null || !readLockOf.hasQueuedThreads()) && delegate.tryLock();
+    }
+
+    @Override
+    public void lock() {
+        if (tryBarge()) {
+            acquired(false, 0, 0);
+            return;
+        }
+        int queued = stats.waiting.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            delegate.lock();
+        } finally {
+            stats.waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        acquired(isContended(queued, waited), waited, queued);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (tryBarge()) {
+            acquired(false, 0, 0);
+            return;
+        }
+        int queued = stats.waiting.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            delegate.lockInterruptibly();
+        } finally {
+            stats.waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        acquired(isContended(queued, waited), waited, queued);
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (delegate.tryLock()) {
+            acquired(false, 0, 0);
+            return true;
+        }
+        stats.recordFailedTryLock();
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (tryBarge()) {
+            acquired(false, 0, 0);
+            return true;
+        }
+        int queued = stats.waiting.incrementAndGet();
+        long start = System.nanoTime();
+        boolean locked;
+        try {
+            locked = delegate.tryLock(time, unit);
+        } finally {
+            stats.waiting.decrementAndGet();
+        }
+        if (!locked) {
+            stats.recordFailedTryLock();
+            return false;
+        }
+        long waited = System.nanoTime() - start;
+        acquired(isContended(queued, waited), waited, queued);
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        Hold hold = holds.get();
+        if (hold.depth > 0 && --hold.depth == 0 && hold.acquiredAt != 0) {
+            stats.recordHold(System.nanoTime() - hold.acquiredAt);
+        }
+        delegate.unlock();
+    }
+
+    @Override
+    public Condition newCondition() {
+        return delegate.newCondition();
+    }
+
+    private boolean isContended(int queued, long waited) {
+        if (shared) {
+            // Other readers counted in 'waiting' may be sharing the lock, not queued for it
+            return waited > CONTENDED_NANOS;
+        }
+        // On the barging path we only get here after tryLock() failed
+        return !queuedOnly || queued > 1 || waited > CONTENDED_NANOS;
+    }
+
+    private void acquired(boolean contended, long waited, int queued) {
+        if (contended) {
+            stats.recordContended(waited, queued);
+        } else {
+            stats.recordUncontended();
+        }
+        Hold hold = holds.get();
+        if (hold.depth++ == 0) {
+            if (--hold.untilSample <= 0) {
+                hold.untilSample = HOLD_SAMPLE_EVERY;
+                hold.acquiredAt = System.nanoTime();
+            } else {
+                hold.acquiredAt = 0;
+            }
+        }
+    }
+
+    // Per thread: how deep it holds this lock and since when (0 = this hold is not sampled)
+    private static final class Hold {
+        int depth;
+        long acquiredAt;
+        int untilSample;
+    }
+}
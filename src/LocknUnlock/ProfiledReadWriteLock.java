@@ -0,0 +1,29 @@
+package LocknUnlock;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * ReadWriteLock decorator: the read and the write lock are profiled separately, as
+ * "&lt;name&gt;.read" and "&lt;name&gt;.write", since their waits have different causes.
+ */
+public class ProfiledReadWriteLock implements ReadWriteLock {
+
+    private final ProfiledLock readLock;
+    private final ProfiledLock writeLock;
+
+    ProfiledReadWriteLock(ReadWriteLock delegate, LockStats readStats, LockStats writeStats) {
+        this.readLock = ProfiledLock.forReadLock(delegate, readStats);
+        this.writeLock = ProfiledLock.forWriteLock(delegate, writeStats);
+    }
+
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+}
@@ -0,0 +1,62 @@
+package LocknUnlock;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of how many threads were queued on a lock, in threads. Lengths up to MAX_EXACT get
+ * a bucket each (one thread more or less matters here, unlike nanoseconds); longer queues share
+ * the last bucket, and the maximum is kept exactly. record() never allocates.
+ */
+public class QueueLengthHistogram {
+
+    private static final int MAX_EXACT = 1024;
+
+    private final AtomicLongArray counts = new AtomicLongArray(MAX_EXACT + 1);
+    private final AtomicInteger max = new AtomicInteger();
+
+    public void record(int threads) {
+        int value = Math.max(0, threads);
+        counts.incrementAndGet(Math.min(value, MAX_EXACT));
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    public long count() {
+        long n = 0;
+        for (int i = 0; i <= MAX_EXACT; i++) {
+            n += counts.get(i);
+        }
+        return n;
+    }
+
+    public int maxThreads() {
+        return max.get();
+    }
+
+    /**
+     * Queue length at the given percentile (e.g. 0.99), in threads.
+     */
+    public int percentileThreads(double percentile) {
+        long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile * n));
+        long seen = 0;
+        for (int i = 0; i < MAX_EXACT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return i;
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * One line, e.g. "p50=2 p99=7 max=9 threads".
+     */
+    public String summary() {
+        return String.format("p50=%d p99=%d max=%d threads", percentileThreads(0.50), percentileThreads(0.99),
+                maxThreads());
+    }
+}
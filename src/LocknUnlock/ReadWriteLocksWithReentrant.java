@@ -1,16 +1,25 @@
 package LocknUnlock;
 
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-public class ReadWriteLocksWithReentrant {
+public class ReadWriteLocksWithReentrant implements Account {
     private double balance;
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Profiled when run with -Dlock.profiling=true, otherwise the given lock as is
+    private final ReadWriteLock lock;
 
     public ReadWriteLocksWithReentrant(double initialBalance) {
+        this(initialBalance, new ReentrantReadWriteLock());
+    }
+
+    // Any ReadWriteLock can be swapped in, e.g. a ReaderBiasedReadWriteLock for read-mostly accounts
+    public ReadWriteLocksWithReentrant(double initialBalance, ReadWriteLock lock) {
         this.balance = initialBalance;
+        this.lock = LockProfiler.readWriteLock("ReadWriteLocksWithReentrant", lock);
     }
 
     // Method to get the current balance (read operation)
+    @Override
     public double getBalance() {
         lock.readLock().lock(); // Acquire the read lock
         try {
@@ -21,6 +30,7 @@ public class ReadWriteLocksWithReentrant {
     }
 
     // Method to deposit money (write operation)
+    @Override
     public void deposit(double amount) {
         lock.writeLock().lock(); // Acquire the write lock
         try {
@@ -34,6 +44,7 @@ public class ReadWriteLocksWithReentrant {
     }
 
     // Method to withdraw money (write operation)
+    @Override
     public void withdraw(double amount) {
         lock.writeLock().lock(); // Acquire the write lock
         try {
@@ -0,0 +1,42 @@
+package LocknUnlock;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ReadWriteLocksWithReentrant with its usual ReentrantReadWriteLock against the same account with
+ * a ReaderBiasedReadWriteLock swapped in, at 99.9%, 99% and 90% reads (writes alternate
+ * deposit(1.0) and withdraw(1.0), and build their console message as usual).
+ *
+ * Prints M operations per second and, for the biased lock, how many times a writer had to revoke
+ * the bias during the run.
+ */
+public class ReaderBiasedLockBenchmark {
+
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+    private static final double[] WRITE_PERCENTS = {0.1, 1, 10};
+    private static final long MEASURE_MILLIS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("M ops/s on one account, %d CPUs%n", Runtime.getRuntime().availableProcessors());
+        ReaderBiasedReadWriteLock[] biased = new ReaderBiasedReadWriteLock[1];
+        // Warm-up
+        AccountBenchmark.measure(() -> new ReadWriteLocksWithReentrant(1_000_000), 4, 1, MEASURE_MILLIS);
+        AccountBenchmark.measure(() -> new ReadWriteLocksWithReentrant(1_000_000, new ReaderBiasedReadWriteLock()),
+                4, 1, MEASURE_MILLIS);
+
+        for (double writePercent : WRITE_PERCENTS) {
+            System.out.printf("%n%.1f%% reads%n", 100 - writePercent);
+            System.out.printf("%-8s %22s %22s %14s%n", "threads", "ReentrantReadWriteLock", "reader-biased", "revocations");
+            for (int threads : THREAD_COUNTS) {
+                AccountBenchmark.Result plain = AccountBenchmark.measure(
+                        () -> new ReadWriteLocksWithReentrant(1_000_000, new ReentrantReadWriteLock()),
+                        threads, writePercent, MEASURE_MILLIS);
+                AccountBenchmark.Result bravo = AccountBenchmark.measure(
+                        () -> new ReadWriteLocksWithReentrant(1_000_000, biased[0] = new ReaderBiasedReadWriteLock()),
+                        threads, writePercent, MEASURE_MILLIS);
+                System.out.printf("%-8d %22.2f %22.2f %14d%n", threads, plain.opsPerSecond() / 1e6,
+                        bravo.opsPerSecond() / 1e6, biased[0].getRevocations());
+            }
+        }
+    }
+}
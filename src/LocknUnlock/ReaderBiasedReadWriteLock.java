@@ -0,0 +1,276 @@
+package LocknUnlock;
+
+import Counters.PaddedCells;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ReadWriteLock biased towards readers (the BRAVO scheme layered on a ReentrantReadWriteLock).
+ *
+ * Every ReentrantReadWriteLock reader CASes the one state word on acquire and on release, so in a
+ * read-mostly workload the readers spend their time moving that cache line between cores. Here,
+ * while the lock is read-biased, a reader only increments a counter in one of several padded
+ * slots (picked by thread id, see Counters.PaddedCells) and checks that the bias is still on;
+ * readers on different slots share nothing.
+ *
+ * A writer takes the underlying write lock, which keeps new slow-path readers out, switches the
+ * bias off, and waits until every slot has drained. That revocation costs a scan of all slots
+ * plus the wait for in-flight readers, so after a revocation the bias stays off for
+ * REARM_FACTOR times as long as the revocation took; then a reader that gets the underlying
+ * read lock switches it back on (each thread looks at the clock every 16th slow read only).
+ * Write-heavy phases thus run on the plain ReentrantReadWriteLock and pay for at most a fraction
+ * of revocations. The write lock's tryLock() waits for the slots to drain only as long as it may
+ * wait at all (not at all for the untimed one); if they do not, it switches the bias back on,
+ * releases the underlying write lock and fails.
+ *
+ * Both locks are reentrant. The write lock has no conditions: a Condition.await() would re-take
+ * the underlying lock behind the bias's back. Downgrading (read lock while holding the write lock)
+ * works, upgrading does not, as with ReentrantReadWriteLock.
+ */
+public class ReaderBiasedReadWriteLock implements ReadWriteLock {
+
+    private static final long REARM_FACTOR = 9;
+    private static final boolean MULTI_CORE = Runtime.getRuntime().availableProcessors() > 1;
+
+    private final ReentrantReadWriteLock underlying;
+    private final PaddedCells slots;
+    private final ThreadLocal<Holds> holds = ThreadLocal.withInitial(Holds::new);
+    private final ReadLock readLock = new ReadLock();
+    private final WriteLock writeLock = new WriteLock();
+
+    private volatile boolean readBias = true;
+    // Both written only under the underlying write lock
+    private volatile long inhibitUntil;
+    private volatile long revocations;
+
+    public ReaderBiasedReadWriteLock() {
+        this(new ReentrantReadWriteLock());
+    }
+
+    public ReaderBiasedReadWriteLock(ReentrantReadWriteLock underlying) {
+        this(underlying, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ReaderBiasedReadWriteLock(ReentrantReadWriteLock underlying, int minSlots) {
+        this.underlying = underlying;
+        this.slots = new PaddedCells(minSlots);
+    }
+
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+
+    public boolean isReadBiased() {
+        return readBias;
+    }
+
+    /**
+     * How often a writer had to switch the bias off and wait for the slots to drain.
+     */
+    public long getRevocations() {
+        return revocations;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Readers
+
+    // Returns true if the read lock is now held through a slot
+    private boolean tryFastRead(Holds mine) {
+        int slot = slots.cellOf(Thread.currentThread());
+        if (mine.fast > 0) {
+            // Reentrant: our slot is already non-zero, so no writer can be past revoke(). Taking
+            // the underlying lock instead would deadlock against a writer draining our slot.
+            slots.getAndAdd(slot, 1L);
+            mine.fast++;
+            return true;
+        }
+        if (!readBias) {
+            return false;
+        }
+        slots.getAndAdd(slot, 1L);
+        // Pairs with revoke(): it clears the bias, then reads the slots
+        if (readBias) {
+            mine.fast++;
+            return true;
+        }
+        slots.getAndAdd(slot, -1L);
+        return false;
+    }
+
+    // Called with the underlying read lock just acquired; the clock is only read every 16th time
+    private void afterSlowRead(Holds mine) {
+        mine.slow++;
+        if (!readBias && (++mine.slowReads & 15) == 0
+                && System.nanoTime() - inhibitUntil >= 0 && !underlying.isWriteLocked()) {
+            readBias = true;
+        }
+    }
+
+    private void unlockRead() {
+        Holds mine = holds.get();
+        if (mine.fast > 0) {
+            mine.fast--;
+            slots.getAndAdd(slots.cellOf(Thread.currentThread()), -1L);
+        } else if (mine.slow > 0) {
+            mine.slow--;
+            underlying.readLock().unlock();
+        } else {
+            throw new IllegalMonitorStateException("Read lock not held by " + Thread.currentThread().getName());
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Writers
+
+    // Called with the underlying write lock held: new readers can only come in through a slot
+    private void revoke() {
+        revoke(0, Long.MAX_VALUE);
+    }
+
+    // As revoke(), giving up once budgetNanos have passed since budgetStart: then the bias is back
+    // on (the readers inside keep their slots) and the caller must release the underlying lock
+    private boolean revoke(long budgetStart, long budgetNanos) {
+        if (!readBias) {
+            return true;
+        }
+        long start = System.nanoTime();
+        readBias = false;
+        for (int i = 0; i < slots.size(); i++) {
+            while (slots.get(i) != 0) {
+                if (budgetNanos != Long.MAX_VALUE && System.nanoTime() - budgetStart >= budgetNanos) {
+                    readBias = true;
+                    return false;
+                }
+                if (MULTI_CORE) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+        long now = System.nanoTime();
+        inhibitUntil = now + (now - start) * REARM_FACTOR;
+        revocations++;
+        return true;
+    }
+
+    private static final class Holds {
+        int fast;
+        int slow;
+        int slowReads;
+    }
+
+    private final class ReadLock implements Lock {
+        @Override
+        public void lock() {
+            Holds mine = holds.get();
+            if (!tryFastRead(mine)) {
+                underlying.readLock().lock();
+                afterSlowRead(mine);
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            Holds mine = holds.get();
+            if (!tryFastRead(mine)) {
+                underlying.readLock().lockInterruptibly();
+                afterSlowRead(mine);
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            Holds mine = holds.get();
+            if (tryFastRead(mine)) {
+                return true;
+            }
+            if (underlying.readLock().tryLock()) {
+                afterSlowRead(mine);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            Holds mine = holds.get();
+            if (tryFastRead(mine)) {
+                return true;
+            }
+            if (underlying.readLock().tryLock(time, unit)) {
+                afterSlowRead(mine);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void unlock() {
+            unlockRead();
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Read locks do not support conditions");
+        }
+    }
+
+    private final class WriteLock implements Lock {
+        @Override
+        public void lock() {
+            underlying.writeLock().lock();
+            revoke();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            underlying.writeLock().lockInterruptibly();
+            revoke();
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (underlying.writeLock().tryLock()) {
+                if (revoke(System.nanoTime(), 0)) {
+                    return true;  // no reader was inside
+                }
+                underlying.writeLock().unlock();
+            }
+            return false;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long start = System.nanoTime();
+            long nanos = unit.toNanos(time);
+            if (underlying.writeLock().tryLock(nanos, TimeUnit.NANOSECONDS)) {
+                if (revoke(start, nanos)) {
+                    return true;
+                }
+                underlying.writeLock().unlock();
+            }
+            return false;
+        }
+
+        @Override
+        public void unlock() {
+            underlying.writeLock().unlock();
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions would bypass the reader bias");
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package LocknUnlock;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Account whose balance, last transaction time and transaction count can be read together,
+ * consistently, without the reader writing anything to shared memory (a sequence lock).
+ *
+ * Reading the three fields under ReentrantReadWriteLock's read lock means two CASes on the lock's
+ * state word per read, and with many polling readers that word's cache line never stays put.
+ * Here:
+ * - a writer (writers are serialized by writeLock) makes the sequence odd, updates the fields,
+ *   and makes it even again
+ * - a reader reads the sequence, the fields, and the sequence again; if it was odd, or changed,
+ *   a write overlapped and the reader retries
+ *
+ * Ordering is spelled out with VarHandle access modes and fences instead of volatile fields:
+ * - writer: sequence = odd; storeStoreFence (the odd value is visible before any field changes);
+ *   fields; sequence = even with release semantics (the fields are visible before it)
+ * - reader: sequence with acquire semantics (nothing below moves above it); fields;
+ *   loadLoadFence (the fields are read before the sequence is read again); sequence
+ * Fields are read and written opaquely so a 64-bit value is never torn, even while a reader
+ * races with a writer and is about to throw the values away.
+ *
+ * A reader can be starved while writes come back to back; with a few thousand writes per second
+ * that is a retry every now and then.
+ */
+public class SeqLockAccount extends CentsAccount {
+
+    private static final VarHandle SEQUENCE;
+    private static final VarHandle BALANCE;
+    private static final VarHandle LAST_TRANSACTION;
+    private static final VarHandle COUNT;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            SEQUENCE = lookup.findVarHandle(SeqLockAccount.class, "sequence", long.class);
+            BALANCE = lookup.findVarHandle(SeqLockAccount.class, "balanceCents", long.class);
+            LAST_TRANSACTION = lookup.findVarHandle(SeqLockAccount.class, "lastTransactionMillis", long.class);
+            COUNT = lookup.findVarHandle(SeqLockAccount.class, "transactionCount", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Odd while a write is in progress. Readers go through the VarHandles only; the writer holding
+    // writeLock may read these plainly, since no one else writes them
+    private long sequence;
+    private long balanceCents;
+    private long lastTransactionMillis;
+    private long transactionCount;
+
+    public SeqLockAccount(long initialCents) {
+        this.balanceCents = initialCents;
+    }
+
+    /**
+     * Balance, time of the last deposit or withdrawal and number of them, all as of the same
+     * instant. Never blocks a writer; retries while one is in progress.
+     */
+    public State read() {
+        for (int attempt = 1; ; attempt++) {
+            long before = (long) SEQUENCE.getAcquire(this);
+            if ((before & 1) == 0) {
+                long balance = (long) BALANCE.getOpaque(this);
+                long last = (long) LAST_TRANSACTION.getOpaque(this);
+                long count = (long) COUNT.getOpaque(this);
+                VarHandle.loadLoadFence();
+                if ((long) SEQUENCE.getOpaque(this) == before) {
+                    return new State(balance, last, count);
+                }
+            }
+            if ((attempt & 63) == 0) {
+                Thread.yield();  // the writer may have been descheduled mid-write
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    @Override
+    public long getBalanceCents() {
+        return (long) BALANCE.getOpaque(this);
+    }
+
+    @Override
+    public long depositCents(long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Deposit must be positive: " + cents);
+        }
+        return write(cents);
+    }
+
+    @Override
+    public long withdrawCents(long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Withdrawal must be positive: " + cents);
+        }
+        return write(-cents);
+    }
+
+    private long write(long delta) {
+        long now = System.currentTimeMillis();
+        writeLock.lock();
+        try {
+            long balance = balanceCents + delta;
+            if (balance < 0) {
+                return -1;
+            }
+            long seq = sequence;
+            SEQUENCE.setOpaque(this, seq + 1);
+            VarHandle.storeStoreFence();
+            BALANCE.setOpaque(this, balance);
+            LAST_TRANSACTION.setOpaque(this, now);
+            COUNT.setOpaque(this, transactionCount + 1);
+            SEQUENCE.setRelease(this, seq + 2);
+            return balance;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * One consistent reading of the account.
+     */
+    public static final class State {
+        private final long balanceCents;
+        private final long lastTransactionMillis;
+        private final long transactionCount;
+
+        State(long balanceCents, long lastTransactionMillis, long transactionCount) {
+            this.balanceCents = balanceCents;
+            this.lastTransactionMillis = lastTransactionMillis;
+            this.transactionCount = transactionCount;
+        }
+
+        public long getBalanceCents() {
+            return balanceCents;
+        }
+
+        public long getLastTransactionMillis() {
+            return lastTransactionMillis;
+        }
+
+        public long getTransactionCount() {
+            return transactionCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("balance=%.2f, transactions=%d, last at %d", balanceCents / 100.0,
+                    transactionCount, lastTransactionMillis);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package LocknUnlock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Dashboard-style polling: reader threads read balance, last transaction time and transaction
+ * count together in a loop while one writer deposits 1 cent at a time, either paced (a deposit
+ * roughly every 50 us) or flat out.
+ *
+ * Compares SeqLockAccount.read() with reading the same three fields under ReentrantReadWriteLock's
+ * read lock, as ReadWriteLocksWithReentrant.getBalance() does for its one field. Every deposit is
+ * 1 cent, so a consistent reading always has balance - initial == count; readings that break this
+ * are counted (must be 0).
+ */
+public class SeqLockAccountBenchmark {
+
+    private static final long INITIAL_CENTS = 1_000_000;
+    private static final int[] READER_COUNTS = {1, 4, 16};
+    private static final long MEASURE_MILLIS = 1000;
+
+    // Keeps the JIT from dropping reads whose result is unused
+    private static volatile long blackhole;
+
+    public static void main(String[] args) throws InterruptedException {
+        run(false, 4);  // warm-up
+        run(true, 4);
+        System.out.printf("M consistent reads/s (writes/s), %d CPUs%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s %-8s %24s %24s%n", "writer", "readers", "read lock", "seqlock");
+        for (boolean flatOut : new boolean[] {false, true}) {
+            for (int readers : READER_COUNTS) {
+                Result locked = measure(new ReadLockedRecord(), readers, flatOut);
+                Result seqlock = measure(new SeqLockRecord(), readers, flatOut);
+                System.out.printf("%-8s %-8d %24s %24s%n", flatOut ? "flat out" : "paced", readers, locked, seqlock);
+            }
+        }
+    }
+
+    private static void run(boolean flatOut, int readers) throws InterruptedException {
+        measure(new ReadLockedRecord(), readers, flatOut);
+        measure(new SeqLockRecord(), readers, flatOut);
+    }
+
+    private interface Record {
+        void deposit();
+
+        // {balance, last transaction millis, count}
+        void read(long[] into);
+    }
+
+    private static final class Result {
+        double readsPerSecond;
+        double writesPerSecond;
+        long inconsistent;
+
+        @Override
+        public String toString() {
+            return String.format("%.2f (%.0fk)%s", readsPerSecond / 1e6, writesPerSecond / 1e3,
+                    inconsistent == 0 ? "" : " " + inconsistent + " BAD");
+        }
+    }
+
+    private static Result measure(Record record, int readers, boolean flatOut) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] reads = new long[readers];
+        long[] inconsistent = new long[readers];
+        Thread[] threads = new Thread[readers];
+        for (int t = 0; t < readers; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                long[] state = new long[3];
+                long sink = 0;
+                awaitQuietly(start);
+                long done = 0;
+                long bad = 0;
+                while (running.get()) {
+                    for (int i = 0; i < 256; i++) {
+                        record.read(state);
+                        if (state[0] - INITIAL_CENTS != state[2]) {
+                            bad++;
+                        }
+                        sink += state[1];
+                    }
+                    done += 256;
+                }
+                reads[index] = done;
+                inconsistent[index] = bad;
+                blackhole = sink;
+            });
+            threads[t].start();
+        }
+        long[] writes = new long[1];
+        Thread writer = new Thread(() -> {
+            awaitQuietly(start);
+            long done = 0;
+            while (running.get()) {
+                record.deposit();
+                done++;
+                if (!flatOut) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                }
+            }
+            writes[0] = done;
+        });
+        writer.start();
+
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(MEASURE_MILLIS);
+        running.set(false);
+        writer.join();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        Result result = new Result();
+        for (int t = 0; t < readers; t++) {
+            result.readsPerSecond += reads[t] * 1e9 / elapsed;
+            result.inconsistent += inconsistent[t];
+        }
+        result.writesPerSecond = writes[0] * 1e9 / elapsed;
+        return result;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class SeqLockRecord implements Record {
+        private final SeqLockAccount account = new SeqLockAccount(INITIAL_CENTS);
+
+        @Override
+        public void deposit() {
+            account.depositCents(1);
+        }
+
+        @Override
+        public void read(long[] into) {
+            SeqLockAccount.State state = account.read();
+            into[0] = state.getBalanceCents();
+            into[1] = state.getLastTransactionMillis();
+            into[2] = state.getTransactionCount();
+        }
+    }
+
+    // The three fields guarded the way ReadWriteLocksWithReentrant guards its balance
+    private static final class ReadLockedRecord implements Record {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private long balanceCents = INITIAL_CENTS;
+        private long lastTransactionMillis;
+        private long transactionCount;
+
+        @Override
+        public void deposit() {
+            long now = System.currentTimeMillis();
+            lock.writeLock().lock();
+            try {
+                balanceCents++;
+                lastTransactionMillis = now;
+                transactionCount++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void read(long[] into) {
+            lock.readLock().lock();
+            try {
+                into[0] = balanceCents;
+                into[1] = lastTransactionMillis;
+                into[2] = transactionCount;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+}
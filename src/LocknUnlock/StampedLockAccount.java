@@ -0,0 +1,90 @@
+package LocknUnlock;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Same account as ReadWriteLocksWithReentrant, guarded by a StampedLock.
+ *
+ * ReentrantReadWriteLock's read lock still CASes a shared reader count on every getBalance(), so
+ * with many readers that one cache line bounces between all cores. An optimistic read only reads
+ * the lock's state before and after reading the balance: nothing is written, and if no writer got
+ * in between the value is returned as is. Only when validate() fails (a deposit or withdrawal ran
+ * meanwhile) does the reader fall back to a real read lock.
+ *
+ * StampedLock is not reentrant, so the write paths must not call getBalance() while holding it.
+ */
+public class StampedLockAccount implements Account {
+    private double balance;
+    private final StampedLock lock = new StampedLock();
+
+    public StampedLockAccount(double initialBalance) {
+        this.balance = initialBalance;
+    }
+
+    // Method to get the current balance (optimistic read, read lock only if a write interfered)
+    @Override
+    public double getBalance() {
+        long stamp = lock.tryOptimisticRead(); // 0 if a writer holds the lock right now
+        double current = balance;
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                current = balance;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return current;
+    }
+
+    // Method to deposit money (write operation)
+    @Override
+    public void deposit(double amount) {
+        long stamp = lock.writeLock();
+        try {
+            if (amount > 0) {
+                balance += amount;
+                System.out.println("Deposited: " + amount + ", New Balance: " + balance);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Method to withdraw money (write operation)
+    @Override
+    public void withdraw(double amount) {
+        long stamp = lock.writeLock();
+        try {
+            if (amount > 0 && amount <= balance) {
+                balance -= amount;
+                System.out.println("Withdrew: " + amount + ", New Balance: " + balance);
+            } else {
+                System.out.println("Withdrawal of " + amount + " failed. Insufficient funds.");
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        StampedLockAccount account = new StampedLockAccount(1000.0);
+
+        Thread t1 = new Thread(() -> {
+            account.deposit(500);
+            System.out.println("Balance after deposit: " + account.getBalance());
+        });
+        Thread t2 = new Thread(() -> {
+            account.withdraw(200);
+            System.out.println("Balance after withdrawal: " + account.getBalance());
+        });
+        Thread t3 = new Thread(() -> System.out.println("Balance enquiry: " + account.getBalance()));
+
+        t1.start();
+        t2.start();
+        t3.start();
+        t1.join();
+        t2.join();
+        t3.join();
+    }
+}
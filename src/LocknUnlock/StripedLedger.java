@@ -0,0 +1,160 @@
+package LocknUnlock;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Balances for millions of accounts, guarded by a fixed number of lock stripes.
+ *
+ * One ReentrantReadWriteLock per account (as in ReadWriteLocksWithReentrant) would mean millions
+ * of lock objects plus a boxed balance each. Here:
+ * - balances live in one long[] of cents, 8 bytes per account, no objects per account
+ * - account i is guarded by stripes[stripeOf(i)]; the stripe count bounds memory and sets how
+ *   many operations can run at the same time
+ * - transfer() locks the two stripes in ascending stripe order, so two opposite transfers
+ *   (A -> B and B -> A) can never each hold the lock the other one needs: no deadlock
+ * - when both accounts share a stripe it is locked once
+ *
+ * Amounts are in cents; a withdrawal or transfer that would make a balance negative is refused.
+ */
+public class StripedLedger {
+
+    private final long[] balances;
+    private final ReentrantLock[] stripes;
+    private final int stripeMask;
+
+    /**
+     * @param stripeCount rounded up to a power of two
+     */
+    public StripedLedger(int accounts, int stripeCount, long initialCents) {
+        if (accounts <= 0 || stripeCount <= 0) {
+            throw new IllegalArgumentException("accounts and stripeCount must be positive");
+        }
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.balances = new long[accounts];
+        this.stripes = new ReentrantLock[size];
+        this.stripeMask = size - 1;
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        Arrays.fill(balances, initialCents);
+    }
+
+    public int size() {
+        return balances.length;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    public long getBalance(int account) {
+        ReentrantLock lock = stripes[stripeOf(account)];
+        lock.lock();
+        try {
+            return balances[account];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void deposit(int account, long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Deposit must be positive: " + cents);
+        }
+        ReentrantLock lock = stripes[stripeOf(account)];
+        lock.lock();
+        try {
+            balances[account] += cents;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return false (and no change) if the account holds less than {@code cents}
+     */
+    public boolean withdraw(int account, long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Withdrawal must be positive: " + cents);
+        }
+        ReentrantLock lock = stripes[stripeOf(account)];
+        lock.lock();
+        try {
+            if (balances[account] < cents) {
+                return false;
+            }
+            balances[account] -= cents;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves {@code cents} from one account to another atomically.
+     *
+     * @return false (and no change) if {@code from} holds less than {@code cents}
+     */
+    public boolean transfer(int from, int to, long cents) {
+        if (cents <= 0) {
+            throw new IllegalArgumentException("Transfer must be positive: " + cents);
+        }
+        if (from == to) {
+            return getBalance(from) >= cents;
+        }
+        int fromStripe = stripeOf(from);
+        int toStripe = stripeOf(to);
+        // Global order: lower stripe index first
+        ReentrantLock first = stripes[Math.min(fromStripe, toStripe)];
+        ReentrantLock second = stripes[Math.max(fromStripe, toStripe)];
+        first.lock();
+        try {
+            if (second != first) {
+                second.lock();
+            }
+            try {
+                if (balances[from] < cents) {
+                    return false;
+                }
+                balances[from] -= cents;
+                balances[to] += cents;
+                return true;
+            } finally {
+                if (second != first) {
+                    second.unlock();
+                }
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    /**
+     * Sum of all balances as of one instant: holds every stripe (in order) while adding up.
+     */
+    public long totalCents() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            long total = 0;
+            for (long balance : balances) {
+                total += balance;
+            }
+            return total;
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].unlock();
+            }
+        }
+    }
+
+    private int stripeOf(int account) {
+        // Fibonacci hashing, so neighbouring account numbers land on different stripes
+        return (int) ((account * 0x9E3779B97F4A7C15L) >>> 32) & stripeMask;
+    }
+}
@@ -0,0 +1,80 @@
+package LocknUnlock;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Random transfers of 1..100 cents between 2M accounts, for every combination of thread count
+ * and stripe count. Prints transfers per second and checks that no money appeared or vanished.
+ *
+ * With 1 stripe the ledger is one big lock; more stripes let transfers on unrelated accounts run
+ * in parallel until the hardware, not the lock, is the limit.
+ */
+public class StripedLedgerBenchmark {
+
+    private static final int ACCOUNTS = 2_000_000;
+    private static final long INITIAL_CENTS = 10_000;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+    private static final int[] STRIPE_COUNTS = {1, 16, 256, 4096};
+    private static final long MEASURE_MILLIS = 500;
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.printf("Transfers/s (M), %d accounts, %d CPUs%n", ACCOUNTS, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-8s", "threads");
+        for (int stripes : STRIPE_COUNTS) {
+            System.out.printf("%14s", stripes + " stripes");
+        }
+        System.out.println();
+
+        measure(new StripedLedger(ACCOUNTS, 256, INITIAL_CENTS), 4);  // warm-up
+        for (int threads : THREAD_COUNTS) {
+            System.out.printf("%-8d", threads);
+            for (int stripes : STRIPE_COUNTS) {
+                StripedLedger ledger = new StripedLedger(ACCOUNTS, stripes, INITIAL_CENTS);
+                double perSecond = measure(ledger, threads);
+                boolean conserved = ledger.totalCents() == ACCOUNTS * INITIAL_CENTS;
+                System.out.printf("%14s", String.format("%.2f%s", perSecond / 1e6, conserved ? "" : " LOST"));
+            }
+            System.out.println();
+        }
+    }
+
+    private static double measure(StripedLedger ledger, int threads) throws InterruptedException {
+        long[] transfers = new long[threads];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MEASURE_MILLIS);
+                long done = 0;
+                do {
+                    for (int i = 0; i < 256; i++) {
+                        ledger.transfer(random.nextInt(ACCOUNTS), random.nextInt(ACCOUNTS), 1 + random.nextInt(100));
+                    }
+                    done += 256;
+                } while (System.nanoTime() < end);
+                transfers[index] = done;
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        long total = 0;
+        for (long count : transfers) {
+            total += count;
+        }
+        return total * 1e9 / elapsed;
+    }
+}
@@ -0,0 +1,215 @@
+package SemaphoreExamples;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fair (first-come, first-served) counting semaphore whose waiters are futures instead of
+ * parked threads.
+ *
+ * Semaphore.acquire() pins a thread per waiting car or student; here acquireAsync() returns a
+ * CompletableFuture that completes when a permit is handed to it, so a million waiters are a
+ * million small objects in a queue and the threads stay free. A waiter costs roughly the future
+ * and its queue slot (plus a scheduled task when it has a timeout).
+ *
+ * Giving up:
+ * - a waiter that times out (orTimeout, on the JDK's shared delay thread) or is cancelled stays
+ *   in the queue, is skipped when its turn comes, and is purged once such waiters make up half
+ *   the queue
+ * - release() hands permits to waiters under the lock, but completes their futures after
+ *   unlocking; if a waiter gave up in between, completing it fails and the permit is released
+ *   again, so no permit is ever lost
+ * - a waiter that got its permit and is then cancelled (too late) keeps the permit; the caller
+ *   must release it, as after acquire()
+ *
+ * Continuations attached with thenRun() and the like run on the thread that calls release(); use
+ * the *Async variants for anything slow.
+ */
+public class AsyncSemaphore {
+
+    private static final int MIN_PURGE = 1024;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    // Waiters in the queue that gave up (roughly: one that gives up mid-grant is counted too)
+    private final AtomicInteger abandoned = new AtomicInteger();
+    private int permits;
+
+    public AsyncSemaphore(int permits) {
+        if (permits < 0) {
+            throw new IllegalArgumentException("Permits must not be negative: " + permits);
+        }
+        this.permits = permits;
+    }
+
+    /**
+     * @return a future completed (on the releasing thread) once a permit is ours; already
+     *         completed if one was free and nobody was waiting
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        lock.lock();
+        try {
+            dropAbandonedHead();
+            if (permits > 0 && waiters.isEmpty()) {
+                permits--;
+                return CompletableFuture.completedFuture(null);
+            }
+            Waiter waiter = new Waiter();
+            waiters.add(waiter);
+            return waiter;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * As acquireAsync(), but the future completes with a TimeoutException (and the place in the
+     * queue is given up) if no permit comes within the timeout.
+     */
+    public CompletableFuture<Void> acquireAsync(long timeout, TimeUnit unit) {
+        CompletableFuture<Void> future = acquireAsync();
+        return future.isDone() ? future : future.orTimeout(timeout, unit);
+    }
+
+    /**
+     * Blocking acquire, for callers that have a thread to spare. If interrupted while waiting,
+     * gives up its place in the queue (or, if the permit arrived anyway, hands it back).
+     */
+    public void acquire() throws InterruptedException {
+        CompletableFuture<Void> future = acquireAsync();
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            if (!future.cancel(false)) {
+                release();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());  // only cancel() fails a waiter
+        }
+    }
+
+    /**
+     * Takes a permit only if one is free and nobody is waiting for it.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            dropAbandonedHead();
+            if (permits > 0 && waiters.isEmpty()) {
+                permits--;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        release(1);
+    }
+
+    public void release(int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Count must be positive: " + count);
+        }
+        List<Waiter> granted = new ArrayList<>();
+        while (count > 0) {
+            lock.lock();
+            try {
+                permits += count;
+                Waiter waiter;
+                while (permits > 0 && (waiter = waiters.poll()) != null) {
+                    if (!waiter.isDone()) {
+                        permits--;
+                        granted.add(waiter);
+                    } else {
+                        abandoned.decrementAndGet();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            count = 0;
+            for (Waiter waiter : granted) {
+                if (!waiter.complete(null)) {
+                    count++;  // gave up after we picked it; the permit goes to the next one
+                }
+            }
+            granted.clear();
+        }
+    }
+
+    public int availablePermits() {
+        lock.lock();
+        try {
+            return permits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waiters in the queue, counting ones that gave up and are not purged yet.
+     */
+    public int getQueueLength() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held
+    private void dropAbandonedHead() {
+        Waiter head;
+        while ((head = waiters.peek()) != null && head.isDone()) {
+            waiters.poll();
+            abandoned.decrementAndGet();
+        }
+    }
+
+    private void onAbandoned() {
+        int count = abandoned.incrementAndGet();
+        if (count < MIN_PURGE || !lock.tryLock()) {
+            return;  // whoever holds the lock will see the next one
+        }
+        try {
+            if (count * 2 >= waiters.size()) {
+                waiters.removeIf(CompletableFuture::isDone);
+                abandoned.set(0);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A queued acquisition; notices when it is timed out or cancelled while still waiting
+    private final class Waiter extends CompletableFuture<Void> {
+        @Override
+        public boolean completeExceptionally(Throwable ex) {
+            boolean gaveUp = super.completeExceptionally(ex);
+            if (gaveUp) {
+                onAbandoned();
+            }
+            return gaveUp;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean gaveUp = super.cancel(mayInterruptIfRunning);
+            if (gaveUp) {
+                onAbandoned();
+            }
+            return gaveUp;
+        }
+    }
+}
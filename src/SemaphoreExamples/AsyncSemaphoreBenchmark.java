@@ -0,0 +1,129 @@
+package SemaphoreExamples;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A million cars queue for a lot with no free space, on 4 threads: half wait indefinitely, a
+ * quarter give up after a random timeout of up to 300 ms, and the drivers of the last quarter
+ * may cancel at any moment (those that got a permit first keep it). While the timeouts fire and
+ * the cancellations come in, 4 threads release one permit at a time, a million in all.
+ *
+ * Prints the time and heap per queued waiter, the grant rate and the threads alive, then checks
+ * the books: every waiter was granted, timed out or cancelled, and the permits left equal the
+ * permits released minus the ones granted (nothing lost to a waiter that gave up mid-grant).
+ */
+public class AsyncSemaphoreBenchmark {
+
+    private static final int WAITERS = 1_000_000;
+    private static final int THREADS = 4;
+    private static final long MAX_TIMEOUT_MILLIS = 300;
+
+    public static void main(String[] args) throws InterruptedException {
+        run(false);  // warm-up
+        run(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void run(boolean print) throws InterruptedException {
+        AsyncSemaphore lot = new AsyncSemaphore(0);
+        CompletableFuture<Void>[] cars = (CompletableFuture<Void>[]) new CompletableFuture<?>[WAITERS];
+        long heapBefore = usedHeap();
+
+        long begin = System.nanoTime();
+        inParallel(t -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = t; i < WAITERS; i += THREADS) {
+                cars[i] = i % 4 == 0
+                        ? lot.acquireAsync(1 + random.nextLong(MAX_TIMEOUT_MILLIS), TimeUnit.MILLISECONDS)
+                        : lot.acquireAsync();
+            }
+        });
+        long queued = System.nanoTime() - begin;
+        long heapQueued = usedHeap();
+        int threadsAlive = Thread.activeCount();
+
+        begin = System.nanoTime();
+        inParallel(t -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = t; i < WAITERS; i += THREADS) {
+                // A random driver of the cancelling quarter: still waiting, being served or parked
+                cars[random.nextInt(WAITERS / 4) * 4 + 1].cancel(false);
+                lot.release();
+            }
+        });
+        long released = System.nanoTime() - begin;
+        Thread.sleep(MAX_TIMEOUT_MILLIS + 100);  // let the last timeouts fire
+
+        long granted = 0;
+        long timedOut = 0;
+        long cancelled = 0;
+        for (CompletableFuture<Void> car : cars) {
+            if (car.isCancelled()) {
+                cancelled++;
+            } else if (car.isCompletedExceptionally()) {
+                Throwable cause = car.handle((v, e) -> e).join();
+                if (!(cause instanceof TimeoutException)) {
+                    throw new IllegalStateException("Unexpected failure", cause);
+                }
+                timedOut++;
+            } else if (car.isDone()) {
+                granted++;
+            } else {
+                throw new IllegalStateException("A waiter was never served");
+            }
+        }
+        int left = lot.availablePermits();
+        if (left != WAITERS - granted) {
+            throw new IllegalStateException("Permits left " + left + ", expected " + (WAITERS - granted));
+        }
+        if (lot.getQueueLength() != 0) {
+            throw new IllegalStateException("Queue not empty: " + lot.getQueueLength());
+        }
+        if (print) {
+            System.out.printf("%d CPUs, %d threads alive while %,d waiters were queued%n",
+                    Runtime.getRuntime().availableProcessors(), threadsAlive, WAITERS);
+            System.out.printf("queued in %d ms, ~%d bytes per waiter (a quarter with timeouts)%n",
+                    TimeUnit.NANOSECONDS.toMillis(queued), (heapQueued - heapBefore) / WAITERS);
+            System.out.printf("released %,d permits in %d ms (%.1f M/s) while timeouts and cancels raced them%n",
+                    WAITERS, TimeUnit.NANOSECONDS.toMillis(released), WAITERS * 1e3 / released);
+            System.out.printf("granted %,d, timed out %,d, cancelled %,d; permits left %,d - all accounted for%n",
+                    granted, timedOut, cancelled, left);
+        }
+    }
+
+    private interface Work {
+        void run(int thread);
+    }
+
+    private static void inParallel(Work work) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int index = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                work.run(index);
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
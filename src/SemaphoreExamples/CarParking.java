@@ -1,6 +1,13 @@
 package SemaphoreExamples;
 
-import java.util.concurrent.Semaphore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This example demonstrates how semaphores can control access to a limited resource.
@@ -17,22 +24,54 @@ public class CarParking {
             Thread carThread = new Thread(new Car(i, parkingLot));
             carThread.start();
         }
+        
+        // 5 more cars queue up without a thread each; they give up after 8 seconds
+        List<CompletableFuture<Void>> asyncCars = new ArrayList<>();
+        for (int i = 6; i <= 10; i++) {
+            int carId = i;
+            long stayMillis = (long) (Math.random() * 5000) + 1000;
+            asyncCars.add(parkingLot.parkCarAsync(carId, 8, TimeUnit.SECONDS)
+                    .thenCompose(parked -> CompletableFuture.runAsync(() -> parkingLot.leaveParkingLot(carId),
+                            CompletableFuture.delayedExecutor(stayMillis, TimeUnit.MILLISECONDS)))
+                    .exceptionally(e -> {
+                        // Dependent stages wrap the failure; only the semaphore's timeout means "gave up"
+                        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                        if (cause instanceof TimeoutException) {
+                            System.out.printf("Car #%d gave up waiting and drove away\n", carId);
+                        } else {
+                            System.out.printf("Car #%d failed to park or leave: %s\n", carId, cause);
+                        }
+                        return null;
+                    }));
+        }
+        // The delay threads are daemons; wait for the async cars before main returns
+        CompletableFuture.allOf(asyncCars.toArray(new CompletableFuture<?>[0])).join();
     }
     
     /**
      * Represents a parking lot with limited spaces.
-     * Uses a semaphore to control access to the parking spaces.
+     * Uses a semaphore to control access to the parking spaces,
+     * and a ParkingSpaceAllocator to pick the space nearest to the entrance.
+     * Cars can wait for a space on their own thread (parkCar) or without one (parkCarAsync).
      */
     static class ParkingLot {
         // The semaphore keeps track of available parking spaces
-        private final Semaphore semaphore;
+        private final AsyncSemaphore semaphore;
         private final int totalSpaces;
+        // Which space is taken, and by which car
+        private final ParkingSpaceAllocator allocator;
+        private final Map<Integer, Integer> parkedCars = new ConcurrentHashMap<>();
         
         public ParkingLot(int spaces) {
+            this(1, spaces);
+        }
+        
+        public ParkingLot(int levels, int spacesPerLevel) {
+            allocator = new ParkingSpaceAllocator(levels, spacesPerLevel);
+            totalSpaces = allocator.capacity();
             // Initialize semaphore with the number of available parking spaces
-            // The 'true' parameter makes this a fair semaphore (first-come, first-served)
-            semaphore = new Semaphore(spaces, true);
-            totalSpaces = spaces;
+            // AsyncSemaphore is always fair (first-come, first-served)
+            semaphore = new AsyncSemaphore(totalSpaces);
         }
         
         /**
@@ -49,8 +88,7 @@ public class CarParking {
                 semaphore.acquire();
                 
                 // If we get here, the car has successfully acquired a parking space
-                System.out.printf("Car #%d has PARKED. Available spaces: %d/%d\n", 
-                        carId, semaphore.availablePermits(), totalSpaces);
+                takeSpace(carId);
                 
                 // Car stays parked for a while (simulate with sleep)
                 Thread.sleep((long) (Math.random() * 5000) + 1000);
@@ -59,15 +97,47 @@ public class CarParking {
             }
         }
         
+        /**
+         * A car queues for a space without blocking a thread.
+         * The future completes once the car has parked, or fails with a
+         * TimeoutException if no space came up in time (the car leaves the queue).
+         */
+        public CompletableFuture<Void> parkCarAsync(int carId, long timeout, TimeUnit unit) {
+            System.out.printf("Car #%d is trying to park. Available spaces: %d/%d\n", 
+                    carId, semaphore.availablePermits(), totalSpaces);
+            return semaphore.acquireAsync(timeout, unit).thenRun(() -> takeSpace(carId));
+        }
+        
+        // Called with a permit held: a space is free for this car, take the nearest one.
+        // A permit is only released after its space is freed, so this cannot fail
+        private void takeSpace(int carId) {
+            int space = allocator.tryPark();
+            if (space < 0) {
+                semaphore.release();
+                throw new IllegalStateException("No free space behind an acquired permit");
+            }
+            parkedCars.put(carId, space);
+            System.out.printf("Car #%d has PARKED in %s. Available spaces: %d/%d\n", 
+                    carId, allocator.label(space), semaphore.availablePermits(), totalSpaces);
+        }
+        
         /**
          * A car leaves the parking lot, freeing up a space.
          */
         public void leaveParkingLot(int carId) {
+            Integer space = parkedCars.remove(carId);
+            if (space == null) {
+                // Interrupted while waiting: never parked, so there is no permit to give back
+                System.out.printf("Car #%d never parked\n", carId);
+                return;
+            }
+            allocator.leave(space);
+            
             // release() increases available permits by one
             semaphore.release();
             
-            System.out.printf("Car #%d has LEFT. Available spaces: %d/%d\n", 
-                    carId, semaphore.availablePermits(), totalSpaces);
+            System.out.printf("Car #%d has LEFT %s. Available spaces: %d/%d\n", 
+                    carId, allocator.label(space), semaphore.availablePermits(), totalSpaces);
         }
     }
     
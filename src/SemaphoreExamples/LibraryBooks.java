@@ -1,6 +1,11 @@
 package SemaphoreExamples;
 
-import java.util.concurrent.Semaphore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This example demonstrates a semaphore controlling access to a limited number
@@ -17,6 +22,30 @@ public class LibraryBooks {
             Thread studentThread = new Thread(new Student(i, library));
             studentThread.start();
         }
+        
+        // 3 more students join the waiting list instead of waiting at the desk;
+        // they give up after 10 seconds
+        List<CompletableFuture<Void>> waitingList = new ArrayList<>();
+        for (int i = 6; i <= 8; i++) {
+            int studentId = i;
+            long readingMillis = (long) (Math.random() * 3000) + 2000;
+            waitingList.add(library.borrowBookAsync(studentId, 10, TimeUnit.SECONDS)
+                    .thenCompose(borrowed -> CompletableFuture.runAsync(() -> library.returnBook(studentId),
+                            CompletableFuture.delayedExecutor(readingMillis, TimeUnit.MILLISECONDS)))
+                    .exceptionally(e -> {
+                        // Dependent stages wrap the failure; only the semaphore's timeout means "gave up"
+                        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                        if (cause instanceof TimeoutException) {
+                            System.out.printf("Student #%d gave up waiting for the book\n", studentId);
+                        } else {
+                            System.out.printf("Student #%d failed to borrow or return the book: %s\n",
+                                    studentId, cause);
+                        }
+                        return null;
+                    }));
+        }
+        // The delay threads are daemons; wait for the waiting list before main returns
+        CompletableFuture.allOf(waitingList.toArray(new CompletableFuture<?>[0])).join();
     }
     
     /**
@@ -24,13 +53,14 @@ public class LibraryBooks {
      */
     static class Library {
         // The semaphore tracks the available book copies
-        private final Semaphore availableBooks;
+        private final AsyncSemaphore availableBooks;
         private final int totalCopies;
         private final String bookTitle = "Java Concurrency in Practice";
         
         public Library(int copies) {
             // Initialize the semaphore with the number of book copies
-            availableBooks = new Semaphore(copies, true);
+            // AsyncSemaphore is always fair (first-come, first-served)
+            availableBooks = new AsyncSemaphore(copies);
             totalCopies = copies;
         }
         
@@ -59,6 +89,19 @@ public class LibraryBooks {
             }
         }
         
+        /**
+         * Student puts their name on the waiting list instead of waiting at the desk.
+         * The future completes once a copy is theirs, or fails with a TimeoutException
+         * if none came back in time (the name is taken off the list).
+         */
+        public CompletableFuture<Void> borrowBookAsync(int studentId, long timeout, TimeUnit unit) {
+            System.out.printf("Student #%d is looking for '%s'. Available copies: %d/%d\n", 
+                    studentId, bookTitle, availableBooks.availablePermits(), totalCopies);
+            return availableBooks.acquireAsync(timeout, unit).thenRun(() -> 
+                    System.out.printf("Student #%d BORROWED '%s'. Available copies: %d/%d\n", 
+                            studentId, bookTitle, availableBooks.availablePermits(), totalCopies));
+        }
+        
         /**
          * Student returns the book to the library
          */
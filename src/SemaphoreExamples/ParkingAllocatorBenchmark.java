@@ -0,0 +1,264 @@
+package SemaphoreExamples;
+
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Park/leave throughput across many lots, each with 4 levels of 1,000 spaces, kept about 90% full:
+ * every thread holds a ring of cars and, per step, parks a new car in a random lot and takes the
+ * oldest of its cars out.
+ *
+ * Compares ParkingSpaceAllocator with a synchronized BitSet per lot (nextClearBit from the entrance)
+ * and, as a floor, a bare Semaphore per lot that only counts and hands out no space. Prints
+ * M operations (parks + leaves) per second. At the end every lot is checked: the spaces still
+ * marked occupied must be exactly the ones the threads hold, or a space was handed out twice.
+ */
+public class ParkingAllocatorBenchmark {
+
+    private static final int LEVELS = 4;
+    private static final int SPACES_PER_LEVEL = 1000;
+    private static final int[] LOT_COUNTS = {1, 64};
+    private static final int[] THREAD_COUNTS = {1, 4, 16};
+    private static final double FILL = 0.9;
+    private static final long MEASURE_MILLIS = 1000;
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int lots : LOT_COUNTS) {  // warm-up
+            measure(new AllocatorLots(lots), 4);
+            measure(new SynchronizedLots(lots), 4);
+            measure(new SemaphoreLots(lots), 4);
+        }
+        System.out.printf("M park+leave ops/s, lots of %d spaces, %d CPUs%n", LEVELS * SPACES_PER_LEVEL,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-6s %-8s %16s %16s %16s%n", "lots", "threads", "semaphore only",
+                "synchronized", "bitmap CAS");
+        for (int lots : LOT_COUNTS) {
+            for (int threads : THREAD_COUNTS) {
+                double semaphore = measure(new SemaphoreLots(lots), threads);
+                double synchronizedBitSet = measure(new SynchronizedLots(lots), threads);
+                double allocator = measure(new AllocatorLots(lots), threads);
+                System.out.printf("%-6d %-8d %16.2f %16.2f %16.2f%n", lots, threads,
+                        semaphore / 1e6, synchronizedBitSet / 1e6, allocator / 1e6);
+            }
+        }
+    }
+
+    private interface Lots {
+        int count();
+
+        // Space number, or -1 if the lot is full
+        int park(int lot);
+
+        void leave(int lot, int space);
+
+        // Occupied spaces of a lot, or null if spaces are not tracked
+        BitSet occupied(int lot);
+    }
+
+    private static double measure(Lots lots, int threads) throws InterruptedException {
+        int capacity = LEVELS * SPACES_PER_LEVEL;
+        int held = (int) (lots.count() * capacity * FILL) / threads;
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        long[] ops = new long[threads];
+        int[][] heldLots = new int[threads][held];
+        int[][] heldSpaces = new int[threads][held];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int[] myLots = heldLots[index];
+                int[] mySpaces = heldSpaces[index];
+                // Fill our share of the lots before the clock starts
+                for (int i = 0; i < held; i++) {
+                    parkSomewhere(lots, random, myLots, mySpaces, i);
+                }
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long done = 0;
+                int oldest = 0;
+                while (running.get()) {
+                    for (int i = 0; i < 64; i++) {
+                        lots.leave(myLots[oldest], mySpaces[oldest]);
+                        parkSomewhere(lots, random, myLots, mySpaces, oldest);
+                        oldest = oldest + 1 == held ? 0 : oldest + 1;
+                    }
+                    done += 128;
+                }
+                ops[index] = done;
+            });
+            workers[t].start();
+        }
+        Thread.sleep(50);  // let the threads fill the lots
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(MEASURE_MILLIS);
+        running.set(false);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        verify(lots, heldLots, heldSpaces);
+        long total = 0;
+        for (long n : ops) {
+            total += n;
+        }
+        return total * 1e9 / elapsed;
+    }
+
+    private static void parkSomewhere(Lots lots, ThreadLocalRandom random, int[] myLots, int[] mySpaces, int i) {
+        int lot = random.nextInt(lots.count());
+        int space;
+        while ((space = lots.park(lot)) < 0) {
+            lot = lot + 1 == lots.count() ? 0 : lot + 1;  // full; drive on to the next lot
+        }
+        myLots[i] = lot;
+        mySpaces[i] = space;
+    }
+
+    private static void verify(Lots lots, int[][] heldLots, int[][] heldSpaces) {
+        if (lots.occupied(0) == null) {
+            return;
+        }
+        BitSet[] expected = new BitSet[lots.count()];
+        for (int lot = 0; lot < lots.count(); lot++) {
+            expected[lot] = new BitSet();
+        }
+        for (int t = 0; t < heldLots.length; t++) {
+            for (int i = 0; i < heldLots[t].length; i++) {
+                BitSet spaces = expected[heldLots[t][i]];
+                if (spaces.get(heldSpaces[t][i])) {
+                    throw new IllegalStateException("Space handed out twice: " + heldSpaces[t][i]);
+                }
+                spaces.set(heldSpaces[t][i]);
+            }
+        }
+        for (int lot = 0; lot < lots.count(); lot++) {
+            if (!lots.occupied(lot).equals(expected[lot])) {
+                throw new IllegalStateException("Lot " + lot + " occupancy does not match the cars parked");
+            }
+        }
+    }
+
+    private static final class AllocatorLots implements Lots {
+        private final ParkingSpaceAllocator[] lots;
+
+        AllocatorLots(int count) {
+            lots = new ParkingSpaceAllocator[count];
+            for (int i = 0; i < count; i++) {
+                lots[i] = new ParkingSpaceAllocator(LEVELS, SPACES_PER_LEVEL);
+            }
+        }
+
+        @Override
+        public int count() {
+            return lots.length;
+        }
+
+        @Override
+        public int park(int lot) {
+            return lots[lot].tryPark();
+        }
+
+        @Override
+        public void leave(int lot, int space) {
+            lots[lot].leave(space);
+        }
+
+        @Override
+        public BitSet occupied(int lot) {
+            BitSet occupied = new BitSet();
+            for (int space = 0; space < lots[lot].capacity(); space++) {
+                if (lots[lot].isOccupied(space)) {
+                    occupied.set(space);
+                }
+            }
+            return occupied;
+        }
+    }
+
+    // One lock per lot around a BitSet
+    private static final class SynchronizedLots implements Lots {
+        private final BitSet[] lots;
+
+        SynchronizedLots(int count) {
+            lots = new BitSet[count];
+            for (int i = 0; i < count; i++) {
+                lots[i] = new BitSet(LEVELS * SPACES_PER_LEVEL);
+            }
+        }
+
+        @Override
+        public int count() {
+            return lots.length;
+        }
+
+        @Override
+        public int park(int lot) {
+            BitSet spaces = lots[lot];
+            synchronized (spaces) {
+                int space = spaces.nextClearBit(0);
+                if (space >= LEVELS * SPACES_PER_LEVEL) {
+                    return -1;
+                }
+                spaces.set(space);
+                return space;
+            }
+        }
+
+        @Override
+        public void leave(int lot, int space) {
+            BitSet spaces = lots[lot];
+            synchronized (spaces) {
+                spaces.clear(space);
+            }
+        }
+
+        @Override
+        public BitSet occupied(int lot) {
+            synchronized (lots[lot]) {
+                return (BitSet) lots[lot].clone();
+            }
+        }
+    }
+
+    // What CarParking.ParkingLot did on its own: count, but not say which space
+    private static final class SemaphoreLots implements Lots {
+        private final Semaphore[] lots;
+
+        SemaphoreLots(int count) {
+            lots = new Semaphore[count];
+            for (int i = 0; i < count; i++) {
+                lots[i] = new Semaphore(LEVELS * SPACES_PER_LEVEL);
+            }
+        }
+
+        @Override
+        public int count() {
+            return lots.length;
+        }
+
+        @Override
+        public int park(int lot) {
+            return lots[lot].tryAcquire() ? 0 : -1;
+        }
+
+        @Override
+        public void leave(int lot, int space) {
+            lots[lot].release();
+        }
+
+        @Override
+        public BitSet occupied(int lot) {
+            return null;
+        }
+    }
+}
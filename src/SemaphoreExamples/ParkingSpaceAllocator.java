@@ -0,0 +1,189 @@
+package SemaphoreExamples;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks every space of a multi-level parking lot and hands out the free space nearest to the
+ * entrance, without locks.
+ *
+ * A Semaphore (as in CarParking.ParkingLot) only counts free spaces. Here every level is a bitmap,
+ * one bit per space, 64 spaces to a word of an AtomicLongArray; a set bit is an occupied space.
+ * Spaces are numbered from the entrance: level 0 before level 1, and within a level lower numbers
+ * are nearer. Parking takes the lowest clear bit of the first word that has one, with a single
+ * compareAndExchange; if another car took that space first, the witness value shows what is left
+ * and the car retries on the same word. Leaving clears the bit the same way.
+ *
+ * Each level keeps a hint: the first word that may have a free space, so in a nearly full lot
+ * parking does not re-read all the full words near the entrance. A car moves the hint forward past
+ * every full word it had to read (past the whole level if it was full), and a car leaving moves it
+ * back to its word. After moving a hint forward the car reads the skipped words once more, so a
+ * space freed at that very moment is never skipped for good.
+ *
+ * Space numbers are level * spacesPerLevel + number within the level.
+ */
+public class ParkingSpaceAllocator {
+
+    private static final int BITS = 64;
+    // Hints 32 ints (128 bytes) apart, so levels' hints do not share a cache line
+    private static final int HINT_STRIDE = 32;
+
+    private final int levels;
+    private final int spacesPerLevel;
+    private final int wordsPerLevel;
+    private final AtomicLongArray occupied;
+    private final AtomicIntegerArray hints;
+
+    public ParkingSpaceAllocator(int levels, int spacesPerLevel) {
+        if (levels <= 0 || spacesPerLevel <= 0) {
+            throw new IllegalArgumentException("levels and spacesPerLevel must be positive");
+        }
+        this.levels = levels;
+        this.spacesPerLevel = spacesPerLevel;
+        this.wordsPerLevel = (spacesPerLevel + BITS - 1) / BITS;
+        this.occupied = new AtomicLongArray(levels * wordsPerLevel);
+        this.hints = new AtomicIntegerArray(levels * HINT_STRIDE);
+        int unused = wordsPerLevel * BITS - spacesPerLevel;
+        if (unused > 0) {
+            // Bits past the last space of a level are permanently "occupied"
+            long padding = -1L << (BITS - unused);
+            for (int level = 0; level < levels; level++) {
+                occupied.set(level * wordsPerLevel + wordsPerLevel - 1, padding);
+            }
+        }
+    }
+
+    public int capacity() {
+        return levels * spacesPerLevel;
+    }
+
+    public int levels() {
+        return levels;
+    }
+
+    /**
+     * Takes the free space nearest to the entrance.
+     *
+     * @return the space number, or -1 if the lot is full
+     */
+    public int tryPark() {
+        for (int level = 0; level < levels; level++) {
+            int space = tryPark(level);
+            if (space >= 0) {
+                return space;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Takes the free space nearest to the entrance on one level.
+     *
+     * @return the space number, or -1 if the level is full
+     */
+    public int tryPark(int level) {
+        int base = level * wordsPerLevel;
+        int hint = hints.get(level * HINT_STRIDE);
+        for (int w = hint; w < wordsPerLevel; w++) {
+            long word = occupied.get(base + w);
+            while (word != -1L) {
+                long bit = Long.lowestOneBit(~word);
+                long witness = occupied.compareAndExchange(base + w, word, word | bit);
+                if (witness == word) {
+                    int firstFree = (word | bit) == -1L ? w + 1 : w;
+                    if (firstFree > hint) {
+                        advanceHint(level, hint, firstFree);
+                    }
+                    return level * spacesPerLevel + w * BITS + Long.numberOfTrailingZeros(bit);
+                }
+                word = witness;  // someone parked (or left) first; retry on what is there now
+            }
+        }
+        if (hint < wordsPerLevel) {
+            advanceHint(level, hint, wordsPerLevel);  // level full: later cars skip it at once
+        }
+        return -1;
+    }
+
+    /**
+     * Frees a space taken by tryPark().
+     *
+     * @throws IllegalStateException if the space is not occupied
+     */
+    public void leave(int space) {
+        if (space < 0 || space >= capacity()) {
+            throw new IllegalArgumentException("No such space: " + space);
+        }
+        int level = space / spacesPerLevel;
+        int number = space % spacesPerLevel;
+        int w = number / BITS;
+        int index = level * wordsPerLevel + w;
+        long bit = 1L << (number % BITS);
+        long word = occupied.get(index);
+        while (true) {
+            if ((word & bit) == 0) {
+                throw new IllegalStateException("Space " + label(space) + " is not occupied");
+            }
+            long witness = occupied.compareAndExchange(index, word, word & ~bit);
+            if (witness == word) {
+                break;
+            }
+            word = witness;
+        }
+        lowerHint(level, w);
+    }
+
+    public boolean isOccupied(int space) {
+        int level = space / spacesPerLevel;
+        int number = space % spacesPerLevel;
+        return (occupied.get(level * wordsPerLevel + number / BITS) & (1L << (number % BITS))) != 0;
+    }
+
+    /**
+     * Free spaces on one level; a moment's count while cars come and go.
+     */
+    public int available(int level) {
+        int occupiedBits = 0;
+        for (int w = 0; w < wordsPerLevel; w++) {
+            occupiedBits += Long.bitCount(occupied.get(level * wordsPerLevel + w));
+        }
+        return wordsPerLevel * BITS - occupiedBits;
+    }
+
+    public int available() {
+        int free = 0;
+        for (int level = 0; level < levels; level++) {
+            free += available(level);
+        }
+        return free;
+    }
+
+    /**
+     * E.g. "L1-017": level 1, space 17 on that level.
+     */
+    public String label(int space) {
+        return String.format("L%d-%03d", space / spacesPerLevel, space % spacesPerLevel);
+    }
+
+    // Moves the hint past words seen full; then checks them again, in case a car left one of them
+    // after we looked but before the hint moved (that car saw the old hint, so did not lower it)
+    private void advanceHint(int level, int from, int to) {
+        if (!hints.compareAndSet(level * HINT_STRIDE, from, to)) {
+            return;
+        }
+        for (int w = from; w < to; w++) {
+            if (occupied.get(level * wordsPerLevel + w) != -1L) {
+                lowerHint(level, w);
+                return;
+            }
+        }
+    }
+
+    private void lowerHint(int level, int word) {
+        int hint;
+        while (word < (hint = hints.get(level * HINT_STRIDE))
+                && !hints.compareAndSet(level * HINT_STRIDE, hint, word)) {
+            // retry
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package Synchronization;
 
+import Counters.Counter;
+import Counters.StripedCounter;
+
 public class SynchronizedMethodVsBlockDemo {
         private int counter = 0;
 
@@ -22,6 +25,16 @@ public class SynchronizedMethodVsBlockDemo {
             }
         }
 
+        // No lock at all: every thread adds to its own padded cell, and sum() adds the cells up.
+        // Scales with cores, but there is no single "value after my increment" to print any more;
+        // main() prints the sum once the threads are done.
+        private final Counter stripedCounter = new StripedCounter();
+
+        public void incrementCounterStriped() {
+            stripedCounter.increment();
+            System.out.println("Counter (striped, no lock) incremented");
+        }
+
         public static void main(String[] args) {
             SynchronizedMethodVsBlockDemo example = new SynchronizedMethodVsBlockDemo();
 
@@ -43,6 +56,12 @@ public class SynchronizedMethodVsBlockDemo {
                 }
             });
 
+            Thread thread3 = new Thread(() -> {
+                for (int i = 0; i < 5; i++) {
+                    example.incrementCounterStriped();
+                }
+            });
+
 //---------------------------------------------------------
 //            NAMED INNER CLASS
 
@@ -63,14 +82,17 @@ public class SynchronizedMethodVsBlockDemo {
             // Start the threads
             thread1.start();
             thread2.start();
+            thread3.start();
 
             // Wait for threads to finish
             try {
                 thread1.join();
                 thread2.join();
+                thread3.join();
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
+            System.out.println("Final striped counter: " + example.stripedCounter.sum());
         }
 
 }
\ No newline at end of file
@@ -42,6 +42,9 @@ package Volatility;
  * - Final result is correctly 7
  */
 
+ import Counters.Counter;
+ import Counters.StripedCounter;
+ 
  import java.util.concurrent.atomic.AtomicInteger;
  import java.util.concurrent.ExecutorService;
  import java.util.concurrent.Executors;
@@ -66,6 +69,9 @@ package Volatility;
 			syncCounter++;
 	  }
 	  
+	  // Approach 5: Striped counter (correct, and threads on different cores don't fight over one value)
+	  private static final Counter stripedCounter = new StripedCounter();
+	  
 	  public static void main(String[] args) throws InterruptedException {
 			// Create a thread pool with 10 threads
 			ExecutorService executor = Executors.newFixedThreadPool(10);
@@ -85,6 +91,9 @@ package Volatility;
 							
 							// Increment with synchronized method (correct: atomic)
 							incrementSyncCounter();
+							
+							// Increment striped counter (correct: each thread adds to its own cell)
+							stripedCounter.increment();
 					  }
 				 });
 			}
@@ -106,6 +115,9 @@ package Volatility;
 			System.out.println("Sync counter:     " + syncCounter + 
 									" (CORRECT: synchronized methods prevent race conditions)");
 			
+			System.out.println("Striped counter:  " + stripedCounter.sum() + 
+									" (CORRECT: per-cell atomic adds, summed at the end)");
+			
 			// Explanation of the increment problem:
 			explainIncrementProblem();
 	  }
@@ -161,4 +173,10 @@ package Volatility;
 		 - For more complex operations involving multiple variables
 		 - When you need to ensure several operations happen together
 		 - For general thread safety of methods
+	 
+	 7. When to use a striped counter (Counters.StripedCounter, LongAdder):
+		 - For counters that many threads update but that are read rarely
+		 - An AtomicInteger is one memory location every core has to own in turn; a striped
+		   counter gives each thread its own cell and adds the cells up in sum()
+		 - Not for values you need to compare-and-set, or read after every update
  */
\ No newline at end of file